@@ -1,6 +1,7 @@
 package collections.array;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 
 /**
  * ResizingArray is a generic class that represents a dynamic array with automatic resizing capabilities.
@@ -46,14 +47,21 @@ public class ResizingArray<T> {
      * @param value the value to be set at the specified index.
      */
     public void set(int index, T value) {
-        if (index >= array.length) {
-            T[] copy = (T[]) new Object[index * 2];
-            System.arraycopy(array, 0, copy, 0, array.length);
-            array = copy;
-        }
+        if (index >= array.length)
+            array = Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
         array[index] = value;
     }
 
+    /**
+     * Grows the array once so it can hold at least the given number of elements without resizing again.
+     *
+     * @param capacity the capacity to ensure.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > array.length)
+            array = Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
     /**
      * Retrieves the element at the specified index.
      *
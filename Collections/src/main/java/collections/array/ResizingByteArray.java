@@ -34,7 +34,7 @@ public class ResizingByteArray {
      */
     public void set(int index, byte value) {
         if (index >= array.length) {
-            byte[] copy = new byte[index + 1];
+            byte[] copy = new byte[Math.max(index + 1, array.length * 2)];
             System.arraycopy(array, 0, copy, 0, array.length);
             array = copy;
         }
@@ -34,7 +34,7 @@ public class ResizingCharArray {
      */
     public void set(int index, char value) {
         if (index >= array.length) {
-            char[] copy = new char[index + 1];
+            char[] copy = new char[Math.max(index + 1, array.length * 2)];
             System.arraycopy(array, 0, copy, 0, array.length);
             array = copy;
         }
@@ -34,7 +34,7 @@ public class ResizingDoubleArray {
      */
     public void set(int index, double value) {
         if (index >= array.length) {
-            double[] copy = new double[index + 1];
+            double[] copy = new double[Math.max(index + 1, array.length * 2)];
             System.arraycopy(array, 0, copy, 0, array.length);
             array = copy;
         }
@@ -34,7 +34,7 @@ public class ResizingFloatArray {
      */
     public void set(int index, float value) {
         if (index >= array.length) {
-            float[] copy = new float[index + 1];
+            float[] copy = new float[Math.max(index + 1, array.length * 2)];
             System.arraycopy(array, 0, copy, 0, array.length);
             array = copy;
         }
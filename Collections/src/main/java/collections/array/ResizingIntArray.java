@@ -36,13 +36,26 @@ public class ResizingIntArray {
      */
     public void set(int index, int value) {
         if (index >= array.length) {
-            int[] copy = new int[index + 1];
+            int[] copy = new int[Math.max(index + 1, array.length * 2)];
             System.arraycopy(array, 0, copy, 0, array.length);
             array = copy;
         }
         array[index] = value;
     }
 
+    /**
+     * Grows the array once so it can hold at least the given number of elements without resizing again.
+     *
+     * @param capacity the capacity to ensure.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > array.length) {
+            int[] copy = new int[Math.max(capacity, array.length * 2)];
+            System.arraycopy(array, 0, copy, 0, array.length);
+            array = copy;
+        }
+    }
+
     /**
      * Retrieves the element at the specified index.
      *
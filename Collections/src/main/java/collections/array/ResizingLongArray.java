@@ -34,7 +34,7 @@ public class ResizingLongArray {
      */
     public void set(int index, long value) {
         if (index >= array.length) {
-            long[] copy = new long[index + 1];
+            long[] copy = new long[Math.max(index + 1, array.length * 2)];
             System.arraycopy(array, 0, copy, 0, array.length);
             array = copy;
         }
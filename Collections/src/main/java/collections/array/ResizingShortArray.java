@@ -34,7 +34,7 @@ public class ResizingShortArray {
      */
     public void set(int index, short value) {
         if (index >= array.length) {
-            short[] copy = new short[index + 1];
+            short[] copy = new short[Math.max(index + 1, array.length * 2)];
             System.arraycopy(array, 0, copy, 0, array.length);
             array = copy;
         }
@@ -73,7 +73,7 @@ public class Bits {
      */
     public void set(int index) {
         if (index >= words.length * 64) { // increase size to next power of 2
-            long[] newWords = new long[words.length * 2];
+            long[] newWords = new long[Math.max(words.length * 2, (index >> 6) + 1)];
             System.arraycopy(words, 0, newWords, 0, words.length);
             words = newWords;
         }
@@ -166,6 +166,163 @@ public class Bits {
      */
     public void clearAll() {
         Arrays.fill(words, 0);
+        size = 0;
+    }
+
+    /**
+     * Checks if every bit set within another instance of Bits is also set within this instance.
+     * Both instances may have a different number of words, in which case the missing words are treated as 0.
+     *
+     * @param other The other Bits instance to compare.
+     * @return true if this instance contains all bits of the other instance, false otherwise.
+     */
+    public boolean containsAll(Bits other) {
+        long[] a = words, b = other.words;
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            if ((a[i] & b[i]) != b[i])
+                return false;
+        }
+        for (int i = common; i < b.length; i++) {
+            if (b[i] != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if any of the bits are similar to another instance of Bits.
+     *
+     * @param other The other Bits instance to compare.
+     * @return true if any of the bits are the same, false otherwise.
+     */
+    public boolean anyMatch(Bits other) {
+        long[] a = words, b = other.words;
+        for (int i = 0, common = Math.min(a.length, b.length); i < common; i++) {
+            if ((a[i] & b[i]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the same bits are set as another instance of Bits.
+     * Both instances may have a different number of words, in which case the missing words are treated as 0.
+     *
+     * @param other The other Bits instance to compare.
+     * @return true if the bits are the same, false otherwise.
+     */
+    public boolean matches(Bits other) {
+        long[] a = words, b = other.words;
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            if (a[i] != b[i])
+                return false;
+        }
+        for (int i = common; i < a.length; i++) {
+            if (a[i] != 0)
+                return false;
+        }
+        for (int i = common; i < b.length; i++) {
+            if (b[i] != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Determines if all bits are unset (0).
+     *
+     * @return true if all bits are unset, false otherwise.
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Performs a bitwise OR operation with another instance, growing this instance if needed.
+     *
+     * @param other The other Bits instance for OR operation.
+     */
+    public void or(Bits other) {
+        if (other.words.length > words.length)
+            words = Arrays.copyOf(words, other.words.length);
+        for (int i = 0; i < other.words.length; i++)
+            words[i] |= other.words[i];
+        size = cardinality();
+    }
+
+    /**
+     * Creates a copy of the current instance.
+     *
+     * @return A copy of the current instance.
+     */
+    public Bits clone() {
+        Bits copy = new Bits(words.length << 6);
+        copy.words = words.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Retrieves the word at the specified position.
+     *
+     * @param index The position of the word.
+     * @return The word at the position, or 0 if the position is outside the current capacity.
+     */
+    public long getWord(int index) {
+        return index < words.length ? words[index] : 0;
+    }
+
+    /**
+     * @return The number of words within the internal array.
+     */
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * Calculates the hash code of the set bits. Two instances with the same bits set have the same hash code,
+     * regardless of their capacity.
+     *
+     * @return The hash code of the set bits.
+     */
+    @Override
+    public int hashCode() {
+        int last = words.length - 1;
+        while (last >= 0 && words[last] == 0)
+            last--;
+        long hash = 1234;
+        for (int i = last; i >= 0; i--)
+            hash ^= words[i] * (i + 1);
+        return (int) ((hash >> 32) ^ hash);
+    }
+
+    /**
+     * Checks if the same bits are set as another object.
+     *
+     * @param o The object to compare.
+     * @return true if the object is a Bits instance with the same bits set, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Bits other && matches(other));
+    }
+
+    /**
+     * Counts the number of set bits across every word.
+     *
+     * @return The number of set bits.
+     */
+    private int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
     }
 
     /**
@@ -0,0 +1,164 @@
+package collections.set;
+
+import java.util.Arrays;
+
+/**
+ * The SparseIntSet class is a set of non-negative integers backed by a dense array of the values and a sparse array
+ * mapping every value to its position within the dense array. Adding, removing and checking for a value are all
+ * constant time operations, while the values can still be iterated linearly through the dense array.
+ * <p>
+ * When a value is removed, the last value of the dense array is moved into its position, so the order of iteration
+ * changes in the same way as the SwapOnRemove arrays.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class SparseIntSet {
+
+    private int[] dense;  // The values of the set, packed together
+    private int[] sparse; // The position of each value within the dense array
+    private int size;     // The current number of values in the set
+
+    /**
+     * Constructs a new SparseIntSet with an initial capacity of 64 values.
+     */
+    public SparseIntSet() {
+        this(Long.SIZE);
+    }
+
+    /**
+     * Constructs a new SparseIntSet with the specified initial capacity.
+     *
+     * @param capacity the number of values the set can hold, and the highest value it can hold, before resizing
+     */
+    public SparseIntSet(int capacity) {
+        this.dense = new int[Math.max(1, capacity)];
+        this.sparse = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Adds the specified value to this set.
+     *
+     * @param value the non-negative value to add
+     * @return true if the value was added, false if it was already within this set
+     */
+    public boolean add(int value) {
+        if (contains(value))
+            return false;
+        if (value >= sparse.length)
+            sparse = Arrays.copyOf(sparse, Math.max(value + 1, sparse.length * 2));
+        if (size == dense.length)
+            dense = Arrays.copyOf(dense, size * 2);
+        dense[size] = value;
+        sparse[value] = size++;
+        return true;
+    }
+
+    /**
+     * Removes the specified value from this set by moving the last value of the dense array into its position.
+     *
+     * @param value the value to remove
+     * @return true if the value was removed, false if it was not within this set
+     */
+    public boolean remove(int value) {
+        if (!contains(value))
+            return false;
+        int index = sparse[value];
+        int last = dense[--size];
+        dense[index] = last;
+        sparse[last] = index;
+        dense[size] = 0;
+        return true;
+    }
+
+    /**
+     * Checks if this set contains the specified value.
+     *
+     * @param value the value to check for
+     * @return true if the value is within this set, false otherwise
+     */
+    public boolean contains(int value) {
+        if (value < 0 || value >= sparse.length)
+            return false;
+        int index = sparse[value];
+        return index < size && dense[index] == value;
+    }
+
+    /**
+     * Returns the position of the specified value within the dense array.
+     *
+     * @param value the value to search for
+     * @return the position of the value, or -1 if the value is not within this set
+     */
+    public int indexOf(int value) {
+        return contains(value) ? sparse[value] : -1;
+    }
+
+    /**
+     * Returns the value at the specified position within the dense array.
+     *
+     * @param index the position of the value
+     * @return the value at the position
+     */
+    public int get(int index) {
+        return dense[index];
+    }
+
+    /**
+     * Returns the dense array of values. Only the first {@link #size()} values are valid.
+     *
+     * @return the dense array of values
+     */
+    public int[] getData() {
+        return dense;
+    }
+
+    /**
+     * Ensures this set can hold values up to the specified value, and as many values, without resizing.
+     *
+     * @param capacity the capacity to ensure
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > sparse.length)
+            sparse = Arrays.copyOf(sparse, capacity);
+        if (capacity > dense.length)
+            dense = Arrays.copyOf(dense, capacity);
+    }
+
+    /**
+     * Returns the current number of values in this set.
+     *
+     * @return the size of this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this set is empty.
+     *
+     * @return true if this set is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values from this set.
+     */
+    public void clear() {
+        Arrays.fill(dense, 0, size, 0);
+        size = 0;
+    }
+
+    /**
+     * Returns a string representation of the values within this set.
+     *
+     * @return a string representation of this set
+     */
+    @Override
+    public String toString() {
+        return "SparseIntSet" + Arrays.toString(Arrays.copyOf(dense, size));
+    }
+}
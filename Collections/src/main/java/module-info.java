@@ -4,4 +4,5 @@ module Collections {
     exports collections.tree;
     exports collections.bits;
     exports collections.queue;
+    exports collections.set;
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package ecs.benchmark;
+
+import ecs.ECS;
+import ecs.Entity;
+import ecs.EntitySystem;
+import ecs.StorageMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of creating entities with their components and removing them again, one at a time and as a batch.
+ * Every invocation leaves the ECS empty, so recycled indices and pooled entities are reused between invocations.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChurnBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"1", "4", "16", "32"})
+    public int components;
+
+    @Param({"MAPPED", "ARCHETYPE"})
+    public StorageMode mode;
+
+    private ECS<Entity> ecs;
+    private Entity[] created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ecs = Fixtures.ecs(mode, new NoopSystem());
+        created = new Entity[entities];
+    }
+
+    @Benchmark
+    public int createRemove() {
+        for (int i = 0; i < entities; i++) {
+            Entity entity = ecs.create();
+            for (int c = 0; c < components; c++)
+                ecs.addComponent(entity, Fixtures.CONSTRUCTORS[c].get());
+            created[i] = entity;
+        }
+        int last = created[entities - 1].getIndex();
+        for (int i = 0; i < entities; i++)
+            ecs.remove(created[i]);
+        return last;
+    }
+
+    @Benchmark
+    public int createRemoveBatch() {
+        int[] indices = ecs.createBatch(entities, () -> Fixtures.components(components));
+        ecs.removeBatch(indices);
+        return indices[indices.length - 1];
+    }
+
+    /**
+     * Depends on the first component class, so entities join and leave a system.
+     */
+    static final class NoopSystem extends EntitySystem {
+        NoopSystem() {
+            super(Fixtures.C0.class);
+        }
+
+        @Override
+        public void process(int entityID) {
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package ecs.benchmark;
+
+import ecs.Component;
+import ecs.ECS;
+import ecs.Entity;
+import ecs.EntityFactory;
+import ecs.EntitySystem;
+import ecs.StorageMode;
+
+import java.util.function.Supplier;
+
+/**
+ * The `Fixtures` class holds the component classes and helpers shared by the ECS benchmarks. There are 32 distinct
+ * component classes, so benchmarks can vary the number of components per entity.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Fixtures {
+
+    /**
+     * The number of distinct component classes.
+     */
+    public static final int COMPONENT_TYPES = 32;
+
+    /**
+     * The component classes, in the order of {@link #CONSTRUCTORS}.
+     */
+    @SuppressWarnings("unchecked")
+    public static final Class<? extends Component>[] TYPES = new Class[]{C0.class, C1.class, C2.class, C3.class, C4.class, C5.class, C6.class, C7.class, C8.class, C9.class, C10.class, C11.class, C12.class, C13.class, C14.class, C15.class, C16.class, C17.class, C18.class, C19.class, C20.class, C21.class, C22.class, C23.class, C24.class, C25.class, C26.class, C27.class, C28.class, C29.class, C30.class, C31.class};
+
+    /**
+     * Creates a new component of each class.
+     */
+    @SuppressWarnings("unchecked")
+    public static final Supplier<Component>[] CONSTRUCTORS = new Supplier[]{C0::new, C1::new, C2::new, C3::new, C4::new, C5::new, C6::new, C7::new, C8::new, C9::new, C10::new, C11::new, C12::new, C13::new, C14::new, C15::new, C16::new, C17::new, C18::new, C19::new, C20::new, C21::new, C22::new, C23::new, C24::new, C25::new, C26::new, C27::new, C28::new, C29::new, C30::new, C31::new};
+
+    private Fixtures() {
+        // This class only holds static members.
+    }
+
+    /**
+     * Creates an ECS holding the given systems.
+     *
+     * @param mode    The storage mode of the ECS.
+     * @param systems The systems of the ECS.
+     * @return The created ECS.
+     */
+    public static ECS<Entity> ecs(StorageMode mode, EntitySystem... systems) {
+        return new ECS<>(new EntityFactory<>() {
+            @Override
+            public Entity create() {
+                return new Entity();
+            }
+
+            @Override
+            public void destroy(Entity entity) {
+            }
+
+            @Override
+            public void onAddComponent(Entity entity, Component component) {
+            }
+
+            @Override
+            public void onRemoveComponent(Entity entity, Component component) {
+            }
+        }, Entity.class, mode, systems);
+    }
+
+    /**
+     * Creates the first components of each class.
+     *
+     * @param count The number of components to create.
+     * @return The created components.
+     */
+    public static Component[] components(int count) {
+        Component[] components = new Component[count];
+        for (int i = 0; i < count; i++)
+            components[i] = CONSTRUCTORS[i].get();
+        return components;
+    }
+
+    public static final class C0 extends Component {
+        public int value;
+    }
+
+    public static final class C1 extends Component {
+        public int value;
+    }
+
+    public static final class C2 extends Component {
+        public int value;
+    }
+
+    public static final class C3 extends Component {
+        public int value;
+    }
+
+    public static final class C4 extends Component {
+        public int value;
+    }
+
+    public static final class C5 extends Component {
+        public int value;
+    }
+
+    public static final class C6 extends Component {
+        public int value;
+    }
+
+    public static final class C7 extends Component {
+        public int value;
+    }
+
+    public static final class C8 extends Component {
+        public int value;
+    }
+
+    public static final class C9 extends Component {
+        public int value;
+    }
+
+    public static final class C10 extends Component {
+        public int value;
+    }
+
+    public static final class C11 extends Component {
+        public int value;
+    }
+
+    public static final class C12 extends Component {
+        public int value;
+    }
+
+    public static final class C13 extends Component {
+        public int value;
+    }
+
+    public static final class C14 extends Component {
+        public int value;
+    }
+
+    public static final class C15 extends Component {
+        public int value;
+    }
+
+    public static final class C16 extends Component {
+        public int value;
+    }
+
+    public static final class C17 extends Component {
+        public int value;
+    }
+
+    public static final class C18 extends Component {
+        public int value;
+    }
+
+    public static final class C19 extends Component {
+        public int value;
+    }
+
+    public static final class C20 extends Component {
+        public int value;
+    }
+
+    public static final class C21 extends Component {
+        public int value;
+    }
+
+    public static final class C22 extends Component {
+        public int value;
+    }
+
+    public static final class C23 extends Component {
+        public int value;
+    }
+
+    public static final class C24 extends Component {
+        public int value;
+    }
+
+    public static final class C25 extends Component {
+        public int value;
+    }
+
+    public static final class C26 extends Component {
+        public int value;
+    }
+
+    public static final class C27 extends Component {
+        public int value;
+    }
+
+    public static final class C28 extends Component {
+        public int value;
+    }
+
+    public static final class C29 extends Component {
+        public int value;
+    }
+
+    public static final class C30 extends Component {
+        public int value;
+    }
+
+    public static final class C31 extends Component {
+        public int value;
+    }
+}
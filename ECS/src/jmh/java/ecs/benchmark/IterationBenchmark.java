@@ -0,0 +1,91 @@
+package ecs.benchmark;
+
+import ecs.ArchetypeChunk;
+import ecs.ComponentMapper;
+import ecs.ECS;
+import ecs.Entity;
+import ecs.EntitySystem;
+import ecs.StorageMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link ECS#process()} iterating a single system over every entity, reading one component of
+ * each. Entities carry additional components, which spreads mapped storage across more mappers and widens archetypes.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IterationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"1", "4", "16", "32"})
+    public int components;
+
+    @Param({"MAPPED", "ARCHETYPE"})
+    public StorageMode mode;
+
+    private ECS<Entity> ecs;
+    private SumSystem system;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        system = new SumSystem();
+        ecs = Fixtures.ecs(mode, system);
+        ecs.createBatch(entities, () -> Fixtures.components(components));
+    }
+
+    @Benchmark
+    public long process() {
+        system.sum = 0;
+        ecs.process();
+        return system.sum;
+    }
+
+    /**
+     * Sums the values of the first component class, so the iteration cannot be eliminated.
+     */
+    static final class SumSystem extends EntitySystem {
+        private final ComponentMapper mapper;
+        long sum;
+
+        SumSystem() {
+            super(Fixtures.C0.class);
+            this.mapper = getMapper(Fixtures.C0.class);
+        }
+
+        @Override
+        public void process(int entityID) {
+            sum += ((Fixtures.C0) mapper.get(entityID)).value + entityID;
+        }
+
+        @Override
+        protected void process(ArchetypeChunk chunk) {
+            Fixtures.C0[] column = chunk.getColumn(Fixtures.C0.class);
+            int[] ids = chunk.getEntities();
+            for (int i = 0, size = chunk.size(); i < size; i++)
+                sum += column[i].value + ids[i];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ecs.benchmark;
+
+import ecs.Component;
+import ecs.ECS;
+import ecs.Entity;
+import ecs.EntityQuery;
+import ecs.EntitySystem;
+import ecs.StorageMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of adding and removing a component on existing entities, which updates the membership of the
+ * systems and views depending on it and, in archetype mode, moves each entity between archetypes.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MembershipBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"1", "4", "16", "31"})
+    public int components;
+
+    @Param({"MAPPED", "ARCHETYPE"})
+    public StorageMode mode;
+
+    private ECS<Entity> ecs;
+    private Entity[] created;
+    private Component[] toggled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ecs = Fixtures.ecs(mode, new ToggledSystem());
+        ecs.view(EntityQuery.all(Fixtures.C0.class, Fixtures.C31.class));
+        created = new Entity[entities];
+        toggled = new Component[entities];
+        int[] indices = ecs.createBatch(entities, () -> Fixtures.components(components));
+        for (int i = 0; i < entities; i++) {
+            created[i] = ecs.get(indices[i]);
+            toggled[i] = new Fixtures.C31();
+        }
+    }
+
+    @Benchmark
+    public int addRemoveComponent() {
+        for (int i = 0; i < entities; i++)
+            ecs.addComponent(created[i], toggled[i]);
+        for (int i = 0; i < entities; i++)
+            ecs.removeComponent(created[i], toggled[i]);
+        return created[entities - 1].getComponentFlags().size();
+    }
+
+    /**
+     * Only accepts entities holding the toggled component, so every toggle changes its membership.
+     */
+    static final class ToggledSystem extends EntitySystem {
+        ToggledSystem() {
+            super(EntityQuery.all(Fixtures.C0.class, Fixtures.C31.class), Fixtures.C0.class, Fixtures.C31.class);
+        }
+
+        @Override
+        public void process(int entityID) {
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ecs.benchmark;
+
+import ecs.Component;
+import ecs.ECS;
+import ecs.Entity;
+import ecs.EntityQuery;
+import ecs.EntityView;
+import ecs.StorageMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of answering a query, comparing a scan matching every entity against the query with iterating a
+ * cached {@link EntityView}. Half of the entities carry the excluded component, so half of them match.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int entities;
+
+    @Param({"2", "4", "16", "32"})
+    public int components;
+
+    private ECS<Entity> ecs;
+    private EntityQuery query;
+    private EntityView view;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ecs = Fixtures.ecs(StorageMode.MAPPED);
+        query = EntityQuery.all(Fixtures.C0.class).exclude(Fixtures.C1.class);
+        view = ecs.view(query);
+        ecs.createBatch(entities / 2, () -> Fixtures.components(components));
+        ecs.createBatch(entities - entities / 2, () -> {
+            Component[] all = Fixtures.components(components);
+            Component[] withoutExcluded = new Component[all.length - 1];
+            withoutExcluded[0] = all[0];
+            System.arraycopy(all, 2, withoutExcluded, 1, all.length - 2);
+            return withoutExcluded;
+        });
+    }
+
+    @Benchmark
+    public long scan() {
+        long sum = 0;
+        for (int id = 0, capacity = ecs.capacity(); id < capacity; id++) {
+            Entity entity = ecs.get(id);
+            if (entity != null && query.matches(entity.getComponentFlags()))
+                sum += id;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long view() {
+        long sum = 0;
+        int[] ids = view.getEntities();
+        for (int i = 0, size = view.size(); i < size; i++)
+            sum += ids[i];
+        return sum;
+    }
+}
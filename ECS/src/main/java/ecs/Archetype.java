@@ -0,0 +1,219 @@
+package ecs;
+
+import collections.bits.Bits;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The `Archetype` class groups every entity that has exactly the same set of components attached to it.
+ * The entities of an archetype are packed densely into a list of {@link ArchetypeChunk}s, where every chunk except
+ * the last one is always full. Systems matching the signature of an archetype iterate its chunks linearly instead of
+ * looking components up through scattered component mappers.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class Archetype {
+
+    /**
+     * The component flags shared by every entity within this archetype.
+     */
+    private final Bits signature;
+
+    /**
+     * The component classes of this archetype, sorted by their component index.
+     */
+    private final Class<? extends Component>[] types;
+
+    /**
+     * A lookup from component index to the column holding that component, or -1 if absent.
+     */
+    private final int[] columns;
+
+    /**
+     * The chunks holding the entities of this archetype.
+     */
+    private final ArrayList<ArchetypeChunk> chunks;
+
+    /**
+     * The number of entities that can be held by a single chunk, always a power of 2.
+     */
+    private final int chunkCapacity;
+
+    /**
+     * The shift converting a slot into the index of its chunk.
+     */
+    private final int chunkShift;
+
+    /**
+     * The number of entities within this archetype.
+     */
+    private int size;
+
+    /**
+     * Constructs a new `Archetype` for the given component classes.
+     *
+     * @param signature     The component flags shared by every entity within this archetype.
+     * @param types         The component classes of this archetype.
+     * @param chunkCapacity The number of entities a single chunk can hold, must be a power of 2.
+     */
+    Archetype(Bits signature, Class<? extends Component>[] types, int chunkCapacity) {
+        if (Integer.bitCount(chunkCapacity) != 1)
+            throw new IllegalArgumentException("Chunk capacity must be a power of 2");
+        this.signature = signature.clone();
+        this.types = types.clone();
+        this.chunkCapacity = chunkCapacity;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkCapacity);
+        this.chunks = new ArrayList<>();
+
+        Arrays.sort(this.types, Comparator.comparingInt(Component::getComponentIndex));
+
+        int highest = 0;
+        for (Class<? extends Component> type : this.types)
+            highest = Math.max(highest, Component.getComponentIndex(type));
+        this.columns = new int[highest + 1];
+        Arrays.fill(this.columns, -1);
+        for (int i = 0; i < this.types.length; i++)
+            this.columns[Component.getComponentIndex(this.types[i])] = i;
+    }
+
+    /**
+     * Appends an entity to the end of this archetype, allocating a new chunk if the last one is full.
+     * The components of the entity are left empty and must be set afterward.
+     *
+     * @param entityID The index of the entity to append.
+     * @return The slot assigned to the entity.
+     */
+    int add(int entityID) {
+        int slot = size++;
+        int chunkIndex = slot >> chunkShift;
+        if (chunkIndex == chunks.size())
+            chunks.add(new ArchetypeChunk(this, chunkCapacity));
+
+        ArchetypeChunk chunk = chunks.get(chunkIndex);
+        chunk.setEntity(slot & (chunkCapacity - 1), entityID);
+        chunk.size++;
+        return slot;
+    }
+
+    /**
+     * Removes the entity at the given slot by moving the last entity of this archetype into its place,
+     * keeping every chunk but the last one full.
+     *
+     * @param slot The slot of the entity to remove.
+     * @return The index of the entity that was moved into the slot, or -1 if no entity was moved.
+     */
+    int remove(int slot) {
+        int last = --size;
+        ArchetypeChunk lastChunk = chunks.get(last >> chunkShift);
+        int lastIndex = last & (chunkCapacity - 1);
+        int moved = -1;
+
+        if (slot != last) {
+            ArchetypeChunk chunk = chunks.get(slot >> chunkShift);
+            int index = slot & (chunkCapacity - 1);
+            moved = lastChunk.getEntity(lastIndex);
+            chunk.setEntity(index, moved);
+            for (int c = 0; c < types.length; c++) {
+                Component[] column = chunk.getColumn(c);
+                if (column != null)
+                    column[index] = lastChunk.getColumn(c)[lastIndex];
+            }
+        }
+
+        for (int c = 0; c < types.length; c++) {
+            Component[] column = lastChunk.getColumn(c);
+            if (column != null)
+                column[lastIndex] = null;
+        }
+        lastChunk.setEntity(lastIndex, 0);
+        lastChunk.size--;
+        return moved;
+    }
+
+    /**
+     * Sets the component stored at the given slot and column.
+     *
+     * @param slot      The slot of the entity.
+     * @param column    The column of the component.
+     * @param component The component to store.
+     */
+    void set(int slot, int column, Component component) {
+        Component[] components = chunks.get(slot >> chunkShift).getColumn(column);
+        if (components != null)
+            components[slot & (chunkCapacity - 1)] = component;
+    }
+
+    /**
+     * Retrieves the component stored at the given slot and column.
+     *
+     * @param slot   The slot of the entity.
+     * @param column The column of the component.
+     * @return The component stored at the slot and column, or `null` if the column is packed.
+     */
+    Component get(int slot, int column) {
+        Component[] components = chunks.get(slot >> chunkShift).getColumn(column);
+        return components == null ? null : components[slot & (chunkCapacity - 1)];
+    }
+
+    /**
+     * Retrieves the column position of the given component class within this archetype.
+     *
+     * @param type The component class.
+     * @return The column of the component class, or -1 if this archetype does not contain it.
+     */
+    public int columnOf(Class<? extends Component> type) {
+        return columnOf(Component.getComponentIndex(type));
+    }
+
+    /**
+     * Retrieves the column position of the given component index within this archetype.
+     *
+     * @param componentIndex The index of the component.
+     * @return The column of the component index, or -1 if this archetype does not contain it.
+     */
+    int columnOf(int componentIndex) {
+        return componentIndex < columns.length ? columns[componentIndex] : -1;
+    }
+
+    /**
+     * Retrieves the chunk at the given position.
+     *
+     * @param index The position of the chunk.
+     * @return The chunk at the given position.
+     */
+    public ArchetypeChunk getChunk(int index) {
+        return chunks.get(index);
+    }
+
+    /**
+     * @return The number of chunks currently holding at least one entity.
+     */
+    public int chunkCount() {
+        return (size + chunkCapacity - 1) >> chunkShift;
+    }
+
+    /**
+     * @return The number of entities within this archetype.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The component flags shared by every entity within this archetype.
+     */
+    public Bits getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return The component classes of this archetype, sorted by their component index.
+     */
+    public Class<? extends Component>[] getComponentTypes() {
+        return types;
+    }
+}
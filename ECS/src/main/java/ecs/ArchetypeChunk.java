@@ -0,0 +1,127 @@
+package ecs;
+
+import java.lang.reflect.Array;
+
+/**
+ * The `ArchetypeChunk` class is a fixed capacity block of entities that share the same {@link Archetype}.
+ * The components of the chunk are stored column by column, one array per component class, so that the components
+ * of neighbouring entities are next to each other in memory and can be iterated linearly.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class ArchetypeChunk {
+
+    /**
+     * The archetype owning this chunk.
+     */
+    private final Archetype archetype;
+
+    /**
+     * The entity indices stored within this chunk, ordered by slot.
+     */
+    private final int[] entities;
+
+    /**
+     * The component columns of this chunk, ordered the same as the component indices of the archetype.
+     */
+    private final Component[][] columns;
+
+    /**
+     * The number of occupied slots within this chunk.
+     */
+    int size;
+
+    /**
+     * Constructs a new `ArchetypeChunk` for the given archetype.
+     *
+     * @param archetype The archetype owning this chunk.
+     * @param capacity  The maximum number of entities this chunk can hold.
+     */
+    ArchetypeChunk(Archetype archetype, int capacity) {
+        this.archetype = archetype;
+        this.entities = new int[capacity];
+        this.columns = new Component[archetype.getComponentTypes().length][];
+
+        Class<? extends Component>[] types = archetype.getComponentTypes();
+        for (int i = 0; i < types.length; i++) {
+            // packed components keep their fields within a PackedComponentStore instead
+            if (!PackedComponentStore.isPacked(types[i]))
+                this.columns[i] = (Component[]) Array.newInstance(types[i], capacity);
+        }
+    }
+
+    /**
+     * Retrieves the column holding the components of the given class. The returned array is typed to the component
+     * class, so it can be iterated directly up to {@link #size()}.
+     *
+     * @param type The component class of the column.
+     * @param <T>  The type of the component.
+     * @return The column of components, or `null` if the archetype does not contain the component class or the
+     * component class is {@link Packed}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> T[] getColumn(Class<T> type) {
+        int column = archetype.columnOf(type);
+        return column == -1 ? null : (T[]) columns[column];
+    }
+
+    /**
+     * Retrieves the column at the given position within the archetype.
+     *
+     * @param column The position of the column.
+     * @return The column of components.
+     */
+    Component[] getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Retrieves the entity index stored at the given slot.
+     *
+     * @param slot The slot within this chunk.
+     * @return The entity index stored at the slot.
+     */
+    public int getEntity(int slot) {
+        return entities[slot];
+    }
+
+    /**
+     * @return The entity indices of this chunk. Only the first {@link #size()} elements are valid.
+     */
+    public int[] getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return The archetype owning this chunk.
+     */
+    public Archetype getArchetype() {
+        return archetype;
+    }
+
+    /**
+     * @return The number of entities stored within this chunk.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The maximum number of entities this chunk can hold.
+     */
+    public int capacity() {
+        return entities.length;
+    }
+
+    /**
+     * Stores the entity index at the given slot.
+     *
+     * @param slot     The slot within this chunk.
+     * @param entityID The entity index to store.
+     */
+    void setEntity(int slot, int entityID) {
+        entities[slot] = entityID;
+    }
+}
@@ -0,0 +1,269 @@
+package ecs;
+
+import collections.array.ResizingArray;
+import collections.array.ResizingIntArray;
+import collections.bits.Bits;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * The `ArchetypeStorage` class stores the components of an {@link ECS} running in {@link StorageMode#ARCHETYPE}.
+ * Every entity lives in exactly one {@link Archetype}, chosen by its component flags, and is moved to another
+ * archetype whenever a component is added to or removed from it.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class ArchetypeStorage {
+
+    /**
+     * The default number of entities held by a single chunk.
+     */
+    public static final int DEFAULT_CHUNK_CAPACITY = 512;
+
+    /**
+     * A map that associates component flags with the archetype holding entities of those flags.
+     */
+    private final HashMap<Bits, Archetype> archetypes;
+
+    /**
+     * Every archetype created by this storage, in order of creation.
+     */
+    private final ArrayList<Archetype> archetypeList;
+
+    /**
+     * The archetype of every entity, indexed by entity index.
+     */
+    private final ResizingArray<Archetype> locations;
+
+    /**
+     * The slot of every entity within its archetype, indexed by entity index.
+     */
+    private final ResizingIntArray slots;
+
+    /**
+     * Called whenever a new archetype is created.
+     */
+    private final Consumer<Archetype> listener;
+
+    /**
+     * The number of entities held by a single chunk.
+     */
+    private final int chunkCapacity;
+
+    /**
+     * Constructs a new `ArchetypeStorage`.
+     *
+     * @param chunkCapacity The number of entities held by a single chunk, must be a power of 2.
+     * @param listener      Called whenever a new archetype is created.
+     */
+    public ArchetypeStorage(int chunkCapacity, Consumer<Archetype> listener) {
+        this.chunkCapacity = chunkCapacity;
+        this.listener = listener;
+        this.archetypes = new HashMap<>();
+        this.archetypeList = new ArrayList<>();
+        this.locations = new ResizingArray<>(Archetype.class, Long.SIZE);
+        this.slots = new ResizingIntArray(Long.SIZE);
+    }
+
+    /**
+     * Moves an entity into the archetype matching its component flags after the given component was added.
+     * The component flags of the entity must already include the component.
+     *
+     * @param entity    The entity the component was added to.
+     * @param component The component that was added.
+     */
+    public void addComponent(Entity entity, Component component) {
+        int id = entity.getIndex();
+        Archetype from = getArchetype(id);
+        Class<? extends Component> type = component.getClass();
+
+        if (from != null && from.getSignature().matches(entity.getComponentFlags())) {
+            from.set(slots.get(id), from.columnOf(component.getIndex()), component);
+            return;
+        }
+
+        Class<? extends Component>[] types;
+        if (from == null) {
+            types = newTypeArray(1);
+        } else {
+            Class<? extends Component>[] previous = from.getComponentTypes();
+            types = newTypeArray(previous.length + 1);
+            System.arraycopy(previous, 0, types, 0, previous.length);
+        }
+        types[types.length - 1] = type;
+
+        Archetype to = obtain(entity.getComponentFlags(), types);
+        int slot = move(id, from, to);
+        to.set(slot, to.columnOf(component.getIndex()), component);
+    }
+
+    /**
+     * Moves an entity into the archetype matching its component flags after the given component class was removed.
+     * The component flags of the entity must already exclude the component class.
+     *
+     * @param entity The entity the component was removed from.
+     * @param type   The class of the component that was removed.
+     */
+    public void removeComponent(Entity entity, Class<? extends Component> type) {
+        int id = entity.getIndex();
+        Archetype from = getArchetype(id);
+        if (from == null || from.columnOf(type) == -1)
+            return;
+
+        if (entity.getComponentFlags().isEmpty()) {
+            remove(id);
+            return;
+        }
+
+        Class<? extends Component>[] previous = from.getComponentTypes();
+        Class<? extends Component>[] types = newTypeArray(previous.length - 1);
+        for (int i = 0, j = 0; i < previous.length; i++) {
+            if (previous[i] != type)
+                types[j++] = previous[i];
+        }
+
+        move(id, from, obtain(entity.getComponentFlags(), types));
+    }
+
+    /**
+     * Places a batch of entities sharing the same components directly into their archetype, without moving each
+     * entity through the archetypes of its partial component sets. The entities must not be stored yet, and their
+     * component flags must already be set.
+     *
+     * @param entities   The entities to store, all having the same component flags.
+     * @param components The components of each entity, where `components[c][i]` is component `c` of entity `i`.
+     */
+    public void addBatch(Entity[] entities, Component[][] components) {
+        if (entities.length == 0 || components.length == 0)
+            return;
+        Class<? extends Component>[] types = newTypeArray(components.length);
+        int[] indices = new int[components.length];
+        for (int c = 0; c < components.length; c++) {
+            types[c] = components[c][0].getClass();
+            indices[c] = components[c][0].getIndex();
+        }
+
+        Archetype to = obtain(entities[0].getComponentFlags(), types);
+        int[] columns = new int[indices.length];
+        for (int c = 0; c < indices.length; c++)
+            columns[c] = to.columnOf(indices[c]);
+
+        int highest = 0;
+        for (Entity entity : entities)
+            highest = Math.max(highest, entity.getIndex());
+        locations.ensureCapacity(highest + 1);
+        slots.ensureCapacity(highest + 1);
+
+        for (int i = 0; i < entities.length; i++) {
+            int id = entities[i].getIndex();
+            int slot = to.add(id);
+            for (int c = 0; c < columns.length; c++)
+                to.set(slot, columns[c], components[c][i]);
+            locations.set(id, to);
+            slots.set(id, slot);
+        }
+    }
+
+    /**
+     * Removes an entity and all of its components from this storage.
+     *
+     * @param entityID The index of the entity to remove.
+     */
+    public void remove(int entityID) {
+        Archetype from = getArchetype(entityID);
+        if (from == null)
+            return;
+        int moved = from.remove(slots.get(entityID));
+        if (moved != -1)
+            slots.set(moved, slots.get(entityID));
+        locations.set(entityID, null);
+    }
+
+    /**
+     * Retrieves the component of the given class attached to an entity.
+     *
+     * @param entityID The index of the entity.
+     * @param type     The class of the component.
+     * @param <T>      The type of the component.
+     * @return The component, or `null` if the entity does not have a component of the given class.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> T get(int entityID, Class<T> type) {
+        Archetype archetype = getArchetype(entityID);
+        if (archetype == null)
+            return null;
+        int column = archetype.columnOf(type);
+        return column == -1 ? null : (T) archetype.get(slots.get(entityID), column);
+    }
+
+    /**
+     * Retrieves the archetype an entity currently lives in.
+     *
+     * @param entityID The index of the entity.
+     * @return The archetype of the entity, or `null` if the entity has no components.
+     */
+    public Archetype getArchetype(int entityID) {
+        return entityID < locations.length() ? locations.get(entityID) : null;
+    }
+
+    /**
+     * @return Every archetype created by this storage, in order of creation.
+     */
+    public ArrayList<Archetype> getArchetypes() {
+        return archetypeList;
+    }
+
+    /**
+     * Moves an entity from one archetype to another, copying every component both archetypes share.
+     *
+     * @param entityID The index of the entity.
+     * @param from     The archetype the entity currently lives in, or `null` if none.
+     * @param to       The archetype to move the entity to.
+     * @return The slot of the entity within the new archetype.
+     */
+    private int move(int entityID, Archetype from, Archetype to) {
+        int slot = to.add(entityID);
+        if (from != null) {
+            int oldSlot = slots.get(entityID);
+            Class<? extends Component>[] types = from.getComponentTypes();
+            for (int c = 0; c < types.length; c++) {
+                int column = to.columnOf(types[c]);
+                if (column != -1)
+                    to.set(slot, column, from.get(oldSlot, c));
+            }
+            int moved = from.remove(oldSlot);
+            if (moved != -1)
+                slots.set(moved, oldSlot);
+        }
+        locations.set(entityID, to);
+        slots.set(entityID, slot);
+        return slot;
+    }
+
+    /**
+     * Retrieves the archetype for the given component flags, creating it if it does not exist yet.
+     *
+     * @param flags The component flags of the archetype.
+     * @param types The component classes of the archetype.
+     * @return The archetype for the component flags.
+     */
+    private Archetype obtain(Bits flags, Class<? extends Component>[] types) {
+        Archetype archetype = archetypes.get(flags);
+        if (archetype == null) {
+            archetype = new Archetype(flags, types, chunkCapacity);
+            archetypes.put(archetype.getSignature(), archetype);
+            archetypeList.add(archetype);
+            listener.accept(archetype);
+        }
+        return archetype;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Component>[] newTypeArray(int length) {
+        return (Class<? extends Component>[]) new Class[length];
+    }
+}
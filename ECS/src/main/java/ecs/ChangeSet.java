@@ -0,0 +1,101 @@
+package ecs;
+
+import collections.bits.Bits;
+
+/**
+ * The `ChangeSet` class records which entities had a single component class added, removed or changed since it was
+ * last cleared. Each consumer, such as a network sync or persistence system, obtains its own change set through
+ * {@link ECS#trackChanges(Class)} and clears it once it has handled the changes, so consumers running at different
+ * rates never miss a change.
+ * <p>
+ * Components are added and removed through the {@link ECS}, which marks those changes automatically. Changes made by
+ * writing to the fields of a component must be marked with {@link ECS#markChanged(Entity, Class)}. Marking is
+ * synchronized, so it can be done from systems that process their entities in parallel.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class ChangeSet {
+
+    /**
+     * The class of the component whose changes are recorded.
+     */
+    private final Class<? extends Component> type;
+
+    /**
+     * The entity indices marked as changed.
+     */
+    private final Bits changed;
+
+    /**
+     * Constructs a new `ChangeSet` recording the changes of a component class.
+     *
+     * @param type The class of the component.
+     */
+    ChangeSet(Class<? extends Component> type) {
+        this.type = type;
+        this.changed = new Bits(Long.SIZE);
+    }
+
+    /**
+     * Marks an entity as changed.
+     *
+     * @param entityID The index of the entity.
+     */
+    synchronized void mark(int entityID) {
+        changed.set(entityID);
+    }
+
+    /**
+     * Checks if an entity has changed since this set was last cleared.
+     *
+     * @param entityID The index of the entity.
+     * @return `true` if the entity has changed, otherwise `false`.
+     */
+    public synchronized boolean isChanged(int entityID) {
+        return changed.get(entityID);
+    }
+
+    /**
+     * Finds the next changed entity, used to iterate changed entities in order of their index:
+     * <pre>
+     * for (int id = changes.nextSetBit(0); id != -1; id = changes.nextSetBit(id + 1))
+     * </pre>
+     * An entity marked here may have been removed since it was marked.
+     *
+     * @param fromIndex The entity index to start searching from.
+     * @return The index of the next changed entity, or -1 if there is none.
+     */
+    public synchronized int nextSetBit(int fromIndex) {
+        return changed.nextSetBit(fromIndex);
+    }
+
+    /**
+     * @return The number of changed entities.
+     */
+    public synchronized int size() {
+        return changed.size();
+    }
+
+    /**
+     * @return `true` if no entity has changed, otherwise `false`.
+     */
+    public synchronized boolean isEmpty() {
+        return changed.isEmpty();
+    }
+
+    /**
+     * Clears every change, usually once the consumer of this set has handled them for the current tick.
+     */
+    public synchronized void clear() {
+        changed.clearAll();
+    }
+
+    /**
+     * @return The class of the component whose changes are recorded.
+     */
+    public Class<? extends Component> getComponentType() {
+        return type;
+    }
+}
@@ -0,0 +1,193 @@
+package ecs;
+
+import java.util.Arrays;
+
+/**
+ * The `CommandBuffer` class records structural changes to an {@link ECS} - components being added or removed and
+ * entities being removed - so they can be applied together at a sync point instead of immediately.
+ * While an ECS is processing its systems, every structural change is recorded here and flushed once all systems have
+ * finished, which keeps the entities of each system stable during iteration. Each system records into a buffer of
+ * its own, so the changes can be applied in system order whichever system finished first.
+ * <p>
+ * Recording is thread safe, so systems processed in parallel may record changes at the same time.
+ *
+ * @param <E> The type of entity the changes apply to.
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class CommandBuffer<E extends Entity> {
+
+    /**
+     * The command adding a component to an entity.
+     */
+    static final byte ADD_COMPONENT = 0;
+
+    /**
+     * The command removing a component from an entity.
+     */
+    static final byte REMOVE_COMPONENT = 1;
+
+    /**
+     * The command removing an entity.
+     */
+    static final byte REMOVE_ENTITY = 2;
+
+    /**
+     * The type of every recorded command.
+     */
+    private byte[] commands;
+
+    /**
+     * The entity of every recorded command.
+     */
+    private Entity[] entities;
+
+    /**
+     * The component of every recorded command, or `null` for entity removals.
+     */
+    private Component[] components;
+
+    /**
+     * The number of recorded commands.
+     */
+    private int size;
+
+    /**
+     * Constructs a new, empty `CommandBuffer`.
+     */
+    public CommandBuffer() {
+        this.commands = new byte[Long.SIZE];
+        this.entities = new Entity[Long.SIZE];
+        this.components = new Component[Long.SIZE];
+    }
+
+    /**
+     * Records that a component should be added to an entity.
+     *
+     * @param entity    The entity to which the component will be added.
+     * @param component The component to be added.
+     */
+    public synchronized void addComponent(E entity, Component component) {
+        record(ADD_COMPONENT, entity, component);
+    }
+
+    /**
+     * Records that a component should be removed from an entity.
+     *
+     * @param entity    The entity from which the component will be removed.
+     * @param component The component to be removed.
+     */
+    public synchronized void removeComponent(E entity, Component component) {
+        record(REMOVE_COMPONENT, entity, component);
+    }
+
+    /**
+     * Records that an entity should be removed.
+     *
+     * @param entity The entity to be removed.
+     */
+    public synchronized void remove(E entity) {
+        record(REMOVE_ENTITY, entity, null);
+    }
+
+    /**
+     * @return The number of recorded commands.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return `true` if no commands have been recorded, otherwise `false`.
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retrieves the type of the command at the given position.
+     *
+     * @param index The position of the command.
+     * @return The type of the command.
+     */
+    byte getCommand(int index) {
+        return commands[index];
+    }
+
+    /**
+     * Retrieves the entity of the command at the given position.
+     *
+     * @param index The position of the command.
+     * @return The entity of the command.
+     */
+    @SuppressWarnings("unchecked")
+    E getEntity(int index) {
+        return (E) entities[index];
+    }
+
+    /**
+     * Retrieves the component of the command at the given position.
+     *
+     * @param index The position of the command.
+     * @return The component of the command, or `null` for entity removals.
+     */
+    Component getComponent(int index) {
+        return components[index];
+    }
+
+    /**
+     * Sorts the positions of the component commands by component index, keeping the recorded order of commands
+     * sharing the same component index. Entity removals are left out.
+     *
+     * @return The sorted positions of the component commands.
+     */
+    int[] sortByComponent() {
+        long[] keys = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (commands[i] != REMOVE_ENTITY)
+                keys[count++] = ((long) components[i].getIndex() << 32) | i;
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++)
+            order[i] = (int) keys[i];
+        return order;
+    }
+
+    /**
+     * Clears every recorded command.
+     */
+    void clear() {
+        Arrays.fill(entities, 0, size, null);
+        Arrays.fill(components, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Moves every recorded command to the end of another buffer, leaving this buffer empty.
+     *
+     * @param target The buffer receiving the commands.
+     */
+    synchronized void drainTo(CommandBuffer<?> target) {
+        for (int i = 0; i < size; i++)
+            target.record(commands[i], entities[i], components[i]);
+        clear();
+    }
+
+    /**
+     * Appends a command, doubling the capacity of this buffer if it is full.
+     */
+    private void record(byte command, Entity entity, Component component) {
+        if (size == commands.length) {
+            commands = Arrays.copyOf(commands, size * 2);
+            entities = Arrays.copyOf(entities, size * 2);
+            components = Arrays.copyOf(components, size * 2);
+        }
+        commands[size] = command;
+        entities[size] = entity;
+        components[size++] = component;
+    }
+}
@@ -1,7 +1,5 @@
 package ecs;
 
-import java.util.HashMap;
-
 /**
  * The `Component` class is a base class for components in an Entity-Component-System (ECS) architecture.
  * Components represent data and behavior that can be attached to entities. Each component is assigned a unique index
@@ -14,9 +12,11 @@ import java.util.HashMap;
 public class Component {
 
     /**
-     * A map that associates component class names with unique integer indices.
+     * The number of component indices a component signature is sized for up front. Signatures of entities and systems
+     * are all created with this width, so matching them is a fixed number of word comparisons. Components with a
+     * higher index are still supported, and only widen the signatures they are set in.
      */
-    private static final HashMap<String, Integer> components = new HashMap<>();
+    public static final int SIGNATURE_SIZE = 256;
 
     /**
      * The unique index assigned to this component within the ECS.
@@ -32,13 +32,13 @@ public class Component {
 
     /**
      * Retrieves the unique index for a given component class.
-     * If the class has not been encountered before, a new index is assigned.
+     * If the class has not been encountered before, a new index is assigned by the {@link ComponentRegistry}.
      *
      * @param clazz The component class for which to retrieve the index.
      * @return The unique index assigned to the component class.
      */
     public static int getComponentIndex(Class<? extends Component> clazz) {
-        return components.computeIfAbsent(clazz.getName(), v -> components.size() + 1);
+        return ComponentRegistry.indexOf(clazz);
     }
 
     /**
@@ -0,0 +1,31 @@
+package ecs;
+
+import buffer.DynamicByteBuffer;
+
+/**
+ * The `ComponentCodec` interface writes and reads the state of a single component type for a {@link WorldSnapshot}.
+ * Codecs should write only the data needed to restore the component, as every byte is written once per entity.
+ *
+ * @param <T> The type of component handled by this codec.
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ComponentCodec<T extends Component> {
+
+    /**
+     * Writes the state of a component.
+     *
+     * @param component The component to write.
+     * @param buffer    The buffer to write to.
+     */
+    void write(T component, DynamicByteBuffer buffer);
+
+    /**
+     * Reads the state of a component written by {@link #write(Component, DynamicByteBuffer)}.
+     *
+     * @param buffer The buffer to read from.
+     * @return A new component holding the state that was read.
+     */
+    T read(DynamicByteBuffer buffer);
+}
@@ -0,0 +1,92 @@
+package ecs;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * The `ComponentRegistry` class turns component classes into dense integer indices. The index of a class is computed
+ * once and cached within a {@link ClassValue}, so later lookups neither hash the class name nor go through a shared map.
+ * The indices start at 1 and can be used directly to index the arrays holding systems, mappers and stores.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ComponentRegistry {
+
+    /**
+     * The cached index of every component class.
+     */
+    private static final ClassValue<Integer> indices = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return register(type);
+        }
+    };
+
+    /**
+     * The indices assigned so far, guarding against assigning two indices to the same class.
+     */
+    private static final IdentityHashMap<Class<?>, Integer> assigned = new IdentityHashMap<>();
+
+    /**
+     * The component classes, indexed by their component index.
+     */
+    private static volatile Class<?>[] types = new Class<?>[Long.SIZE];
+
+    /**
+     * The number of indices assigned so far, including the unused index 0.
+     */
+    private static int count = 1;
+
+    private ComponentRegistry() {
+    }
+
+    /**
+     * Retrieves the index of a component class, assigning a new one on first use.
+     *
+     * @param type The component class.
+     * @return The index of the component class.
+     */
+    public static int indexOf(Class<? extends Component> type) {
+        return indices.get(type);
+    }
+
+    /**
+     * Retrieves the component class assigned to an index.
+     *
+     * @param index The index of the component class.
+     * @return The component class, or `null` if no class has been assigned the index.
+     */
+    @SuppressWarnings("unchecked")
+    public static Class<? extends Component> typeOf(int index) {
+        Class<?>[] current = types;
+        return index < current.length ? (Class<? extends Component>) current[index] : null;
+    }
+
+    /**
+     * @return The number of indices assigned so far, which is one higher than the highest assigned index.
+     */
+    public static synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Assigns the next index to a component class.
+     *
+     * @param type The component class.
+     * @return The index of the component class.
+     */
+    private static synchronized int register(Class<?> type) {
+        Integer existing = assigned.get(type);
+        if (existing != null)
+            return existing;
+
+        int index = count++;
+        if (index >= types.length)
+            types = Arrays.copyOf(types, types.length * 2);
+        types[index] = type;
+        assigned.put(type, index);
+        return index;
+    }
+}
@@ -1,8 +1,16 @@
 package ecs;
 
 import collections.array.ResizingArray;
+import collections.array.ResizingIntArray;
+import collections.bits.Bits;
 import collections.stack.FastStack;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
 /**
  * The ECS (Entity-Component-System) class represents a simple entity-component-system framework
  * for managing game entities, their components, and systems that process these entities.
@@ -28,6 +36,10 @@ public class ECS<E extends Entity> {
      * Resizable array containing all entities in the ECS, indexed by their unique entity indices.
      */
     private final ResizingArray<E> entities;
+    /**
+     * The current generation of each entity index, increased each time the index is recycled.
+     */
+    private final ResizingIntArray generations;
     /**
      * Stack of recycled entities for efficient entity creation and removal.
      */
@@ -36,86 +48,756 @@ public class ECS<E extends Entity> {
      * EntityFactory used to handle the creation and destruction of entities.
      */
     private final EntityFactory<E> factory;
+    /**
+     * The mode used to store the components of entities.
+     */
+    private final StorageMode mode;
+    /**
+     * The archetype storage holding every component, or `null` if this ECS is not in archetype mode.
+     */
+    private final ArchetypeStorage storage;
+    /**
+     * The stores of packed components, indexed by component index.
+     */
+    private final ResizingArray<PackedComponentStore> packedStores;
+    /**
+     * Bit flags of the component indices that have been checked for being packed.
+     */
+    private final Bits packedChecked;
+    /**
+     * The cached views, mapped by their query.
+     */
+    private final HashMap<EntityQuery, EntityView> views;
+    /**
+     * The cached views referencing each component, indexed by component index.
+     */
+    private final ArrayList<ArrayList<EntityView>> viewsByComponent;
+    /**
+     * The change sets recording the changes of each component, indexed by component index.
+     */
+    private volatile ChangeSet[][] changeSets;
+    /**
+     * The buffer recording structural changes while processing.
+     */
+    private final CommandBuffer<E> commands;
+    /**
+     * The buffer of the system each thread is processing, or `null` if the thread is not processing a system.
+     */
+    private final ThreadLocal<CommandBuffer<E>> recording;
+    /**
+     * Whether the systems are currently being processed.
+     */
+    private volatile boolean processing;
+    /**
+     * The scheduler processing systems in parallel, or `null` if systems are processed in order on one thread.
+     */
+    private SystemScheduler scheduler;
+    /**
+     * The profiler recording every system, or `null` if profiling is disabled.
+     */
+    private volatile SystemProfiler profiler;
 
     /**
-     * Constructs an ECS instance with the specified systems.
+     * Constructs an ECS instance with the specified systems, storing components in per-system mappers.
      *
      * @param systems The systems responsible for processing entities based on their components.
      */
     public ECS(EntityFactory<E> factory, Class<E> type, EntitySystem... systems) {
+        this(factory, type, StorageMode.MAPPED, systems);
+    }
+
+    /**
+     * Constructs an ECS instance with the specified systems and storage mode.
+     *
+     * @param mode    The mode used to store the components of entities.
+     * @param systems The systems responsible for processing entities based on their components.
+     * @throws IllegalStateException if the mode is {@link StorageMode#ARCHETYPE} and a system reads components
+     *                               through component mappers without processing archetype chunks itself.
+     */
+    public ECS(EntityFactory<E> factory, Class<E> type, StorageMode mode, EntitySystem... systems) {
+        for (EntitySystem system : systems)
+            system.checkMode(mode);
         this.factory = factory;
         this.systems = systems;
+        this.mode = mode;
         this.entities = new ResizingArray<>(type, Long.SIZE);
         this.indicies = new EntityIndexQueue();
+        this.generations = new ResizingIntArray(Long.SIZE);
         this.pool = new FastStack<>();
+        this.packedStores = new ResizingArray<>(PackedComponentStore.class, Long.SIZE);
+        this.packedChecked = new Bits(Component.SIGNATURE_SIZE);
+        this.views = new HashMap<>();
+        this.viewsByComponent = new ArrayList<>();
+        this.changeSets = new ChangeSet[0][];
+        this.commands = new CommandBuffer<>();
+        this.recording = new ThreadLocal<>();
+        this.storage = mode == StorageMode.ARCHETYPE
+                ? new ArchetypeStorage(ArchetypeStorage.DEFAULT_CHUNK_CAPACITY, this::onArchetypeCreated)
+                : null;
+
+        for (EntitySystem system : systems)
+            system.bind(this);
     }
 
     /**
      * Processes all systems, allowing them to update and operate on entities.
+     * Structural changes made while processing are recorded and applied with {@link #flush()} once every system has
+     * finished.
      */
     public void process() {
-        for (int i = 0; i < systems.length; i++) {
-            systems[i].process();
+        process(() -> {
+            SystemProfiler profiler = this.profiler;
+            if (scheduler != null) {
+                scheduler.process();
+            } else if (profiler != null) {
+                for (int i = 0; i < systems.length; i++) {
+                    profiler.process(i, mode);
+                }
+            } else {
+                for (int i = 0; i < systems.length; i++) {
+                    systems[i].process(mode);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the given work as processing, so structural changes made by it are recorded and applied with
+     * {@link #flush()} once it has finished. This is used to process only some of the systems, such as by a
+     * {@link TickScheduler}.
+     *
+     * @param work The work processing systems.
+     */
+    public void process(Runnable work) {
+        processing = true;
+        try {
+            work.run();
+        } finally {
+            processing = false;
+            flush();
+            SystemProfiler profiler = this.profiler;
+            if (profiler != null)
+                profiler.endTick();
+        }
+    }
+
+    /**
+     * Runs the given work with structural changes deferred, applying them once it has finished unless the ECS was
+     * already processing, in which case they are applied along with the rest of the pass.
+     *
+     * @param work The work that may make structural changes, possibly from several threads.
+     */
+    void defer(Runnable work) {
+        if (processing) {
+            work.run();
+            return;
+        }
+        processing = true;
+        try {
+            work.run();
+        } finally {
+            processing = false;
+            flush();
+        }
+    }
+
+    /**
+     * Enables profiling of every system, replacing any previous profiler.
+     *
+     * @param window The number of ticks the rolling percentiles of the profiler are taken over.
+     * @return The profiler recording every system.
+     */
+    public SystemProfiler enableProfiling(int window) {
+        SystemProfiler profiler = new SystemProfiler(systems, window);
+        this.profiler = profiler;
+        if (scheduler != null)
+            scheduler.setProfiler(profiler);
+        return profiler;
+    }
+
+    /**
+     * Disables profiling of the systems.
+     */
+    public void disableProfiling() {
+        this.profiler = null;
+        if (scheduler != null)
+            scheduler.setProfiler(null);
+    }
+
+    /**
+     * @return The profiler recording every system, or `null` if profiling is disabled.
+     */
+    public SystemProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Enables parallel processing of systems on the given pool. Systems that do not conflict with each other, based
+     * on the components they declare to read and write, are processed at the same time while conflicting systems
+     * keep the order they were given in.
+     *
+     * @param pool The pool to process systems on.
+     * @return The scheduler used to process systems.
+     */
+    public SystemScheduler enableParallelProcessing(ForkJoinPool pool) {
+        this.scheduler = new SystemScheduler(pool, mode, systems);
+        scheduler.setProfiler(profiler);
+        return scheduler;
+    }
+
+    /**
+     * Disables parallel processing, processing systems in order on the calling thread.
+     */
+    public void disableParallelProcessing() {
+        this.scheduler = null;
+    }
+
+    /**
+     * @return The scheduler processing systems in parallel, or `null` if parallel processing is disabled.
+     */
+    public SystemScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Retrieves the cached view of the entities matching the given query, creating it if it does not exist yet.
+     * A newly created view is filled with every existing entity matching the query, after which it is kept up to date
+     * as components are added and removed.
+     *
+     * @param query The query describing the entities of the view.
+     * @return The view of the entities matching the query.
+     */
+    public EntityView view(EntityQuery query) {
+        EntityView view = views.get(query);
+        if (view != null)
+            return view;
+
+        view = new EntityView(query);
+        views.put(query, view);
+
+        Bits referenced = query.getReferenced();
+        for (int i = referenced.nextSetBit(0); i != -1; i = referenced.nextSetBit(i + 1)) {
+            while (viewsByComponent.size() <= i)
+                viewsByComponent.add(null);
+            if (viewsByComponent.get(i) == null)
+                viewsByComponent.set(i, new ArrayList<>());
+            viewsByComponent.get(i).add(view);
         }
+
+        for (int i = 0, length = entities.length(); i < length; i++) {
+            E entity = entities.get(i);
+            if (entity != null)
+                view.update(entity);
+        }
+        return view;
+    }
+
+    /**
+     * Creates a change set recording which entities had the given component class added, removed or changed. Every
+     * caller gets its own change set, which it clears once it has handled the changes.
+     *
+     * @param type The class of the component to record the changes of.
+     * @return The change set of the component class.
+     */
+    public synchronized ChangeSet trackChanges(Class<? extends Component> type) {
+        int index = Component.getComponentIndex(type);
+        ChangeSet[][] copy = changeSets;
+        if (index >= copy.length)
+            copy = Arrays.copyOf(copy, index + 1);
+        ChangeSet[] sets = copy[index] == null ? new ChangeSet[1] : Arrays.copyOf(copy[index], copy[index].length + 1);
+        ChangeSet set = sets[sets.length - 1] = new ChangeSet(type);
+        copy[index] = sets;
+        changeSets = copy;
+        return set;
+    }
+
+    /**
+     * Marks a component of an entity as changed in every change set tracking its class. This must be called after
+     * writing to the fields of a component, while adding and removing components is marked automatically.
+     *
+     * @param entity The entity whose component changed.
+     * @param type   The class of the component that changed.
+     */
+    public void markChanged(E entity, Class<? extends Component> type) {
+        markChanged(entity.getIndex(), Component.getComponentIndex(type));
+    }
+
+    /**
+     * Marks a component of an entity as changed in every change set tracking it.
+     *
+     * @param entityID       The index of the entity.
+     * @param componentIndex The index of the component.
+     */
+    private void markChanged(int entityID, int componentIndex) {
+        ChangeSet[][] changeSets = this.changeSets;
+        if (componentIndex >= changeSets.length || changeSets[componentIndex] == null)
+            return;
+        for (ChangeSet set : changeSets[componentIndex])
+            set.mark(entityID);
     }
 
     /**
-     * Creates a new entity or reuses a recycled entity from the pool.
+     * Updates every view referencing a component after it was added to or removed from an entity.
+     *
+     * @param entity         The entity whose components changed.
+     * @param componentIndex The index of the component that was added or removed.
+     */
+    private void updateViews(Entity entity, int componentIndex) {
+        if (componentIndex >= viewsByComponent.size())
+            return;
+        ArrayList<EntityView> list = viewsByComponent.get(componentIndex);
+        if (list == null)
+            return;
+        for (int i = 0, size = list.size(); i < size; i++)
+            list.get(i).update(entity);
+    }
+
+    /**
+     * Creates a new entity or reuses a recycled entity from the pool. Entities may be created by systems processed in
+     * parallel, as indices and pooled entities are claimed under the same lock the recorded changes are applied with.
      *
      * @return The created or recycled entity.
      */
     public Entity create() {
-        int index = indicies.pop();
-        E entity = !pool.isEmpty() ? pool.pop() : factory.create();
-        entity.setIndex(index);
-        entities.set(index, entity);
-        return entity;
+        synchronized (commands) {
+            int index = indicies.pop();
+            E entity = !pool.isEmpty() ? pool.pop() : factory.create();
+            entity.setIndex(index);
+            entity.setGeneration(generationOf(index));
+            entities.set(index, entity);
+            return entity;
+        }
+    }
+
+    /**
+     * Creates a batch of entities sharing the same component classes. The indices of the batch are reserved at once,
+     * and the entity array, generations, archetypes, component mappers and memberships of interested systems are each
+     * grown once for the whole batch rather than once per entity.
+     * <p>
+     * The template is called once per entity and must return new components of the same classes every time. If the
+     * ECS is processing its systems, the components are added once processing has finished.
+     *
+     * @param count    The number of entities to create.
+     * @param template Creates the components of a single entity.
+     * @return The indices of the created entities.
+     * @throws IllegalArgumentException if the template returns components of differing classes.
+     */
+    @SuppressWarnings("unchecked")
+    public int[] createBatch(int count, Supplier<Component[]> template) {
+        int[] indices = new int[count];
+        if (count == 0)
+            return indices;
+
+        // create and validate every component before reserving anything, so a failing template leaves no trace
+        Component[][] components = null;
+        for (int i = 0; i < count; i++) {
+            Component[] created = template.get();
+            if (components == null)
+                components = new Component[created.length][count];
+            if (created.length != components.length)
+                throw new IllegalArgumentException("Template returned a differing number of components");
+            for (int c = 0; c < created.length; c++) {
+                if (i > 0 && created[c].getIndex() != components[c][0].getIndex())
+                    throw new IllegalArgumentException("Template returned a differing component class");
+                components[c][i] = created[c];
+            }
+        }
+
+        int highest;
+        E[] batch = (E[]) new Entity[count];
+        synchronized (commands) {
+            highest = indicies.pop(indices);
+            entities.ensureCapacity(highest + 1);
+            generations.ensureCapacity(highest + 1);
+            for (int i = 0; i < count; i++) {
+                E entity = !pool.isEmpty() ? pool.pop() : factory.create();
+                entity.setIndex(indices[i]);
+                entity.setGeneration(generationOf(indices[i]));
+                entities.set(indices[i], entity);
+                batch[i] = entity;
+            }
+        }
+
+        if (processing) {
+            for (int i = 0; i < count; i++) {
+                for (Component[] column : components)
+                    recorder().addComponent(batch[i], column[i]);
+            }
+            return indices;
+        }
+
+        for (Component[] column : components) {
+            PackedComponentStore packed = getPackedStore(column[0]);
+            for (int i = 0; i < count; i++) {
+                batch[i].getComponentFlags().set(column[i].getIndex());
+                markChanged(indices[i], column[i].getIndex());
+                if (packed != null)
+                    packed.load(indices[i], column[i]);
+                factory.onAddComponent(batch[i], column[i]);
+            }
+        }
+
+        if (storage != null)
+            storage.addBatch(batch, components);
+
+        // every entity of the batch has the same flags, so each view and system only has to be checked once
+        ArrayList<EntityView> matchedViews = new ArrayList<>();
+        for (Component[] column : components) {
+            int index = column[0].getIndex();
+            ArrayList<EntityView> list = index < viewsByComponent.size() ? viewsByComponent.get(index) : null;
+            if (list == null)
+                continue;
+            for (EntityView view : list) {
+                if (!matchedViews.contains(view) && view.getQuery().matches(batch[0].getComponentFlags()))
+                    matchedViews.add(view);
+            }
+        }
+        for (EntityView view : matchedViews) {
+            for (int i = 0; i < count; i++)
+                view.update(batch[i]);
+        }
+
+        if (storage == null) {
+            for (EntitySystem system : systems) {
+                boolean member = system.accepts(batch[0]) && system.canStay(batch[0]);
+                boolean mapped = false;
+                for (Component[] column : components) {
+                    ComponentMapper mapper = system.getMapper(column[0].getIndex());
+                    if (mapper == null || getPackedStore(column[0]) != null)
+                        continue;
+                    if (!mapped)
+                        system.ensureCapacity(highest + 1);
+                    mapped = true;
+                    for (int i = 0; i < count; i++)
+                        mapper.set(indices[i], column[i]);
+                }
+                if (member) {
+                    for (int i = 0; i < count; i++)
+                        system.add(indices[i]);
+                }
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Removes a batch of entities, visiting each system once for the whole batch. If the ECS is processing its
+     * systems, the removal is deferred until processing has finished.
+     *
+     * @param indices The indices of the entities to remove.
+     */
+    public void removeBatch(int[] indices) {
+        if (processing) {
+            for (int index : indices) {
+                E entity = entities.get(index);
+                if (entity != null)
+                    recorder().remove(entity);
+            }
+            return;
+        }
+        for (EntitySystem system : systems) {
+            for (int index : indices)
+                system.remove(index);
+        }
+        for (int index : indices) {
+            E entity = entities.get(index);
+            if (entity == null)
+                continue;
+            detachAll(entity);
+            recycle(entity);
+        }
+    }
+
+    /**
+     * Creates an entity at a specific index and generation, used to restore entities whose handles must not change.
+     *
+     * @param index      The index of the entity.
+     * @param generation The generation of the entity.
+     * @return The created or recycled entity.
+     * @throws IllegalStateException if the index is already in use.
+     */
+    E createAt(int index, int generation) {
+        synchronized (commands) {
+            if (!indicies.reserve(index))
+                throw new IllegalStateException("Entity index " + index + " is already in use");
+            E entity = !pool.isEmpty() ? pool.pop() : factory.create();
+            entity.setIndex(index);
+            entity.setGeneration(generation);
+            generations.set(index, generation);
+            entities.set(index, entity);
+            return entity;
+        }
     }
 
     /**
      * Removes an entity from the ECS, recycling its index and returning it to the entity pool.
+     * If the ECS is processing its systems, the removal is deferred until processing has finished.
      *
      * @param entity The entity to be removed.
      */
     public void remove(E entity) {
-        indicies.push(entity.getIndex());
-        pool.push(entity);
-        entity.getComponentFlags().clearAll();
-        entities.set(entity.getIndex(), null);
-        factory.destroy(entity);
+        if (processing) {
+            recorder().remove(entity);
+            return;
+        }
+        detachAll(entity);
+        for (int i = 0; i < systems.length; i++)
+            systems[i].remove(entity.getIndex());
+        recycle(entity);
     }
 
     /**
      * Adds a component to an entity, updating relevant systems and their component mappers.
+     * If the ECS is processing its systems, the change is deferred until processing has finished.
      *
      * @param entity    The entity to which the component will be added.
      * @param component The component to be added.
      */
     public void addComponent(E entity, Component component) {
-        entity.getComponentFlags().set(component.getIndex());
-        EntitySystem.getSystems(component.getClass()).forEach(system -> {
-            system.add(entity.getIndex());
-            system.getMapper(component.getClass()).set(entity.getIndex(), component);
-
-            factory.onAddComponent(entity, component);
-        });
+        if (processing) {
+            recorder().addComponent(entity, component);
+            return;
+        }
+        PackedComponentStore packed = attach(entity, component);
+        updateViews(entity, component.getIndex());
+        if (storage != null)
+            return;
+        int index = component.getIndex();
+        for (EntitySystem system : EntitySystem.getSystems(index)) {
+            if (system.accepts(entity))
+                system.add(entity.getIndex());
+            else
+                system.remove(entity.getIndex());
+            ComponentMapper mapper = system.getMapper(index);
+            if (packed == null && mapper != null)
+                mapper.set(entity.getIndex(), component);
+        }
     }
 
     /**
      * Removes a component from an entity, updating relevant systems and their component mappers.
+     * If the ECS is processing its systems, the change is deferred until processing has finished.
      *
      * @param entity    The entity from which the component will be removed.
      * @param component The component to be removed.
      */
     public void removeComponent(E entity, Component component) {
-        entity.getComponentFlags().clear(component.getIndex());
-        EntitySystem.getSystems(component.getClass()).forEach(system -> {
-            if (!system.canStay(entity))
+        if (processing) {
+            recorder().removeComponent(entity, component);
+            return;
+        }
+        PackedComponentStore packed = detach(entity, component);
+        updateViews(entity, component.getIndex());
+        if (storage != null)
+            return;
+        int index = component.getIndex();
+        for (EntitySystem system : EntitySystem.getSystems(index)) {
+            // removing an excluded component may make the entity match a query it did not match before
+            if (system.canStay(entity))
+                system.add(entity.getIndex());
+            else
                 system.remove(entity.getIndex());
+            ComponentMapper mapper = system.getMapper(index);
+            if (packed == null && mapper != null)
+                mapper.set(entity.getIndex(), null);
+        }
+    }
 
-            system.getMapper(component.getClass()).set(entity.getIndex(), null);
-            factory.onRemoveComponent(entity, component);
-        });
+    /**
+     * Applies every structural change recorded while processing. Changes recorded outside of any system come first,
+     * followed by the changes of each system in the order the systems were given in, so systems processed at the
+     * same time by a {@link SystemScheduler} have the same effect as systems processed one after another. Component
+     * changes are grouped by component class, so the systems and views of each class are looked up once per batch.
+     * Entity removals are applied last.
+     */
+    @SuppressWarnings("unchecked")
+    public void flush() {
+        synchronized (commands) {
+            for (EntitySystem system : systems)
+                ((CommandBuffer<E>) system.getChanges()).drainTo(commands);
+            if (commands.isEmpty())
+                return;
+
+            int[] order = commands.sortByComponent();
+
+            // apply the component flags and storage in the order the changes were recorded
+            for (int i = 0, size = commands.size(); i < size; i++) {
+                byte command = commands.getCommand(i);
+                if (command == CommandBuffer.ADD_COMPONENT)
+                    attach(commands.getEntity(i), commands.getComponent(i));
+                else if (command == CommandBuffer.REMOVE_COMPONENT)
+                    detach(commands.getEntity(i), commands.getComponent(i));
+            }
+
+            // update the membership of systems and views once per component class
+            for (int start = 0; start < order.length; ) {
+                Component first = commands.getComponent(order[start]);
+                int index = first.getIndex();
+                int end = start + 1;
+                while (end < order.length && commands.getComponent(order[end]).getIndex() == index)
+                    end++;
+
+                for (int i = start; i < end; i++)
+                    updateViews(commands.getEntity(order[i]), index);
+
+                if (storage == null) {
+                    boolean packed = getPackedStore(first) != null;
+                    for (EntitySystem system : EntitySystem.getSystems(index)) {
+                        ComponentMapper mapper = packed ? null : system.getMapper(index);
+                        for (int i = start; i < end; i++) {
+                            E entity = commands.getEntity(order[i]);
+                            boolean added = commands.getCommand(order[i]) == CommandBuffer.ADD_COMPONENT;
+                            if (added ? system.accepts(entity) : system.canStay(entity))
+                                system.add(entity.getIndex());
+                            else
+                                system.remove(entity.getIndex());
+                            if (mapper != null)
+                                mapper.set(entity.getIndex(), added ? commands.getComponent(order[i]) : null);
+                        }
+                    }
+                }
+                start = end;
+            }
+
+            for (int i = 0, size = commands.size(); i < size; i++) {
+                if (commands.getCommand(i) != CommandBuffer.REMOVE_ENTITY)
+                    continue;
+                E entity = commands.getEntity(i);
+                if (entities.get(entity.getIndex()) != entity)
+                    continue; // already removed
+                detachAll(entity);
+                for (int s = 0; s < systems.length; s++)
+                    systems[s].remove(entity.getIndex());
+                recycle(entity);
+            }
+
+            commands.clear();
+        }
+    }
+
+    /**
+     * @return The buffer recording structural changes made outside of any system while the ECS is processing.
+     */
+    public CommandBuffer<E> getCommandBuffer() {
+        return commands;
+    }
+
+    /**
+     * Makes the calling thread record structural changes into the given buffer while the ECS is processing.
+     *
+     * @param buffer The buffer of the system being processed, or `null` to record into the shared buffer.
+     * @return The buffer the calling thread recorded into before.
+     */
+    @SuppressWarnings("unchecked")
+    CommandBuffer<?> recordInto(CommandBuffer<?> buffer) {
+        CommandBuffer<E> previous = recording.get();
+        if (buffer == null)
+            recording.remove();
+        else
+            recording.set((CommandBuffer<E>) buffer);
+        return previous;
+    }
+
+    /**
+     * @return The buffer structural changes of the calling thread are recorded into.
+     */
+    private CommandBuffer<E> recorder() {
+        CommandBuffer<E> buffer = recording.get();
+        return buffer != null ? buffer : commands;
+    }
+
+    /**
+     * @return `true` if the ECS is currently processing its systems, otherwise `false`.
+     */
+    public boolean isProcessing() {
+        return processing;
+    }
+
+    /**
+     * Sets the flag, packed fields and archetype of an added component.
+     *
+     * @param entity    The entity to which the component is added.
+     * @param component The component that is added.
+     * @return The store of the component if it is packed, otherwise `null`.
+     */
+    private PackedComponentStore attach(E entity, Component component) {
+        entity.getComponentFlags().set(component.getIndex());
+        markChanged(entity.getIndex(), component.getIndex());
+        PackedComponentStore packed = getPackedStore(component);
+        if (packed != null)
+            packed.load(entity.getIndex(), component);
+        if (storage != null)
+            storage.addComponent(entity, component);
+        factory.onAddComponent(entity, component);
+        return packed;
+    }
+
+    /**
+     * Clears the flag, packed fields and archetype of a removed component.
+     *
+     * @param entity    The entity from which the component is removed.
+     * @param component The component that is removed.
+     * @return The store of the component if it is packed, otherwise `null`.
+     */
+    private PackedComponentStore detach(E entity, Component component) {
+        entity.getComponentFlags().clear(component.getIndex());
+        markChanged(entity.getIndex(), component.getIndex());
+        PackedComponentStore packed = getPackedStore(component);
+        if (packed != null)
+            packed.clear(entity.getIndex());
+        if (storage != null)
+            storage.removeComponent(entity, component.getClass());
+        factory.onRemoveComponent(entity, component);
+        return packed;
+    }
+
+    /**
+     * Clears every component of an entity from the storage, packed stores and views.
+     *
+     * @param entity The entity being removed.
+     */
+    private void detachAll(E entity) {
+        if (storage != null)
+            storage.remove(entity.getIndex());
+        Bits flags = entity.getComponentFlags();
+        for (int i = flags.nextSetBit(0); i != -1; i = flags.nextSetBit(i + 1)) {
+            PackedComponentStore store = i < packedStores.length() ? packedStores.get(i) : null;
+            if (store != null)
+                store.clear(entity.getIndex());
+            markChanged(entity.getIndex(), i);
+        }
+        flags.clearAll();
+        if (!views.isEmpty()) {
+            for (EntityView view : views.values())
+                view.remove(entity.getIndex());
+        }
+    }
+
+    /**
+     * Retrieves the current generation of an entity index, making room for it if the index has not been used before.
+     *
+     * @param index The entity index.
+     * @return The generation of the index.
+     */
+    private int generationOf(int index) {
+        if (index >= generations.length())
+            generations.set(index, 0);
+        return generations.get(index);
+    }
+
+    /**
+     * Recycles the index of a removed entity and returns it to the entity pool.
+     *
+     * @param entity The entity being removed.
+     */
+    private void recycle(E entity) {
+        synchronized (commands) {
+            generations.set(entity.getIndex(), entity.getGeneration() + 1);
+            indicies.push(entity.getIndex());
+            pool.push(entity);
+            entities.set(entity.getIndex(), null);
+        }
+        factory.destroy(entity);
     }
 
     /**
@@ -128,6 +810,39 @@ public class ECS<E extends Entity> {
         return entities.get(ID);
     }
 
+    /**
+     * Returns the entity corresponding to the specified handle, if the entity the handle was taken from still exists.
+     *
+     * @param handle the entity handle, as returned by {@link Entity#getHandle()}.
+     * @return the entity, or `null` if it has been removed.
+     */
+    public E get(long handle) {
+        int index = (int) handle;
+        int[] generations = this.generations.getElements();
+        if (index < 0 || index >= generations.length || generations[index] != (int) (handle >>> 32)
+                || index >= entities.length())
+            return null;
+        return entities.get(index);
+    }
+
+    /**
+     * Checks whether the entity the specified handle was taken from still exists.
+     *
+     * @param handle the entity handle, as returned by {@link Entity#getHandle()}.
+     * @return `true` if the entity exists, `false` otherwise.
+     */
+    public boolean isAlive(long handle) {
+        return get(handle) != null;
+    }
+
+    /**
+     * @return The number of entity indices that can currently be held without growing. Every index in use is lower,
+     * so visiting each index below it visits every live entity, along with some unused slots.
+     */
+    public int capacity() {
+        return entities.length();
+    }
+
     /**
      * @return The entity elements.
      */
@@ -135,7 +850,108 @@ public class ECS<E extends Entity> {
         return entities.getElements();
     }
 
+    /**
+     * Retrieves the component of the given class attached to an entity. In {@link StorageMode#MAPPED} components are
+     * only kept by the mappers of systems, so components no system of this ECS depends on cannot be retrieved.
+     * {@link Packed} components have no instance to retrieve and must be read through their store instead.
+     *
+     * @param entity The entity holding the component.
+     * @param type   The class of the component.
+     * @param <T>    The type of the component.
+     * @return The component, or `null` if the entity does not have a retrievable component of the given class.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> T getComponent(E entity, Class<T> type) {
+        return (T) getComponent(entity.getIndex(), Component.getComponentIndex(type));
+    }
+
+    /**
+     * Retrieves the component with the given component index attached to an entity.
+     *
+     * @param entityID       The index of the entity.
+     * @param componentIndex The index of the component.
+     * @return The component, or `null` if the entity does not have a retrievable component with the index.
+     */
+    Component getComponent(int entityID, int componentIndex) {
+        if (storage != null) {
+            Archetype archetype = storage.getArchetype(entityID);
+            if (archetype == null)
+                return null;
+            Class<? extends Component> type = ComponentRegistry.typeOf(componentIndex);
+            return type == null ? null : storage.get(entityID, type);
+        }
+        for (int i = 0; i < systems.length; i++) {
+            ComponentMapper mapper = systems[i].getMapper(componentIndex);
+            if (mapper != null)
+                return entityID < mapper.length() ? (Component) mapper.get(entityID) : null;
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the store holding the fields of a {@link Packed} component class, creating it if needed.
+     *
+     * @param type The packed component class.
+     * @param <T>  The type of the component.
+     * @return The store of the packed component class.
+     * @throws IllegalArgumentException if the component class is not packed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> PackedComponentStore<T> getPackedStore(Class<T> type) {
+        int index = Component.getComponentIndex(type);
+        PackedComponentStore<T> store = index < packedStores.length() ? packedStores.get(index) : null;
+        if (store == null) {
+            store = new PackedComponentStore<>(type);
+            packedStores.set(index, store);
+            packedChecked.set(index);
+        }
+        return store;
+    }
+
+    /**
+     * Retrieves the store of the given component if its class is packed.
+     *
+     * @param component The component.
+     * @return The store of the component class, or `null` if the component class is not packed.
+     */
+    @SuppressWarnings("unchecked")
+    private PackedComponentStore getPackedStore(Component component) {
+        int index = component.getIndex();
+        if (!packedChecked.get(index)) {
+            packedChecked.set(index);
+            if (PackedComponentStore.isPacked(component.getClass()))
+                packedStores.set(index, new PackedComponentStore(component.getClass()));
+        }
+        return index < packedStores.length() ? packedStores.get(index) : null;
+    }
+
     public EntitySystem[] getSystems() {
         return systems;
     }
+
+    /**
+     * @return The mode used to store the components of entities.
+     */
+    public StorageMode getStorageMode() {
+        return mode;
+    }
+
+    /**
+     * @return The archetype storage holding every component, or `null` if this ECS is not in archetype mode.
+     */
+    public ArchetypeStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Registers a newly created archetype with every system matching its signature.
+     *
+     * @param archetype The archetype that was created.
+     */
+    private void onArchetypeCreated(Archetype archetype) {
+        for (int i = 0; i < systems.length; i++) {
+            if (systems[i].matches(archetype))
+                systems[i].addArchetype(archetype);
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package ecs;
 
-import collections.bits.LongBits;
+import collections.bits.Bits;
 
 /**
  * The `Entity` class represents an entity in an Entity-Component-System (ECS) architecture. Entities are fundamental
@@ -15,11 +15,15 @@ public class Entity {
     /**
      * Bit flags representing the presence of components attached to this entity.
      */
-    private final LongBits componentFlags = new LongBits();
+    private final Bits componentFlags = new Bits(Component.SIGNATURE_SIZE);
     /**
      * The unique index assigned to this entity within the ECS.
      */
     private int index;
+    /**
+     * The generation of the index assigned to this entity, increased each time the index is recycled.
+     */
+    private int generation;
 
     /**
      * Retrieves the unique index of this entity.
@@ -39,12 +43,40 @@ public class Entity {
         this.index = index;
     }
 
+    /**
+     * Retrieves the generation of the index assigned to this entity.
+     *
+     * @return The generation of this entity.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Sets the generation of this Entity.
+     *
+     * @param generation the generation to set.
+     */
+    protected void setGeneration(int generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Retrieves the handle of this entity, which stays unique after the index of this entity is recycled.
+     *
+     * @return The handle packing the index and generation of this entity.
+     * @see EntityHandle
+     */
+    public long getHandle() {
+        return EntityHandle.of(index, generation);
+    }
+
     /**
      * Retrieves the bit flags representing the presence of components attached to this entity.
      *
      * @return The bit flags indicating the presence of components.
      */
-    public LongBits getComponentFlags() {
+    public Bits getComponentFlags() {
         return componentFlags;
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package ecs;
+
+import java.util.Arrays;
+
+/**
+ * The `EntityCommandBuffer` class records changes to the membership of an {@link EntitySystem} that were requested
+ * while the system was iterating its entities in parallel. Recording is thread safe, and the recorded commands are
+ * applied in the order they were recorded once the parallel pass has finished.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class EntityCommandBuffer {
+
+    /**
+     * The command adding an entity to a system.
+     */
+    private static final int ADD = 0;
+
+    /**
+     * The command removing an entity from a system.
+     */
+    private static final int REMOVE = 1;
+
+    /**
+     * The recorded commands, stored as pairs of command type and entity index.
+     */
+    private int[] commands;
+
+    /**
+     * The number of recorded integers within the command array.
+     */
+    private int size;
+
+    /**
+     * Constructs a new, empty `EntityCommandBuffer`.
+     */
+    public EntityCommandBuffer() {
+        this.commands = new int[Long.SIZE];
+    }
+
+    /**
+     * Records that an entity should be added to the system.
+     *
+     * @param entityID The index of the entity.
+     */
+    public synchronized void add(int entityID) {
+        record(ADD, entityID);
+    }
+
+    /**
+     * Records that an entity should be removed from the system.
+     *
+     * @param entityID The index of the entity.
+     */
+    public synchronized void remove(int entityID) {
+        record(REMOVE, entityID);
+    }
+
+    /**
+     * Applies every recorded command to the given system and clears this buffer.
+     *
+     * @param system The system to apply the commands to.
+     */
+    synchronized void flush(EntitySystem system) {
+        for (int i = 0; i < size; i += 2) {
+            if (commands[i] == ADD)
+                system.add(commands[i + 1]);
+            else
+                system.remove(commands[i + 1]);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return The number of recorded commands.
+     */
+    public synchronized int size() {
+        return size >> 1;
+    }
+
+    /**
+     * @return `true` if no commands have been recorded, otherwise `false`.
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Appends a command to the command array, doubling its capacity if it is full.
+     *
+     * @param command  The type of the command.
+     * @param entityID The index of the entity.
+     */
+    private void record(int command, int entityID) {
+        if (size + 2 > commands.length)
+            commands = Arrays.copyOf(commands, commands.length * 2);
+        commands[size++] = command;
+        commands[size++] = entityID;
+    }
+}
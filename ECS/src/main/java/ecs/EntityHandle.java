@@ -0,0 +1,52 @@
+package ecs;
+
+/**
+ * The `EntityHandle` class packs the index and generation of an entity into a single `long`. The index of an entity is
+ * reused once the entity is removed, but its generation is increased, so a handle held onto after removal no longer
+ * resolves to the entity that took over its index.
+ * <p>
+ * The lower 32 bits of a handle hold the index, and the upper 32 bits hold the generation.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ * @see ECS#get(long)
+ */
+public final class EntityHandle {
+
+    /**
+     * The handle that never resolves to an entity.
+     */
+    public static final long NONE = -1L;
+
+    private EntityHandle() {
+        // This class only holds static methods.
+    }
+
+    /**
+     * Packs an index and a generation into a handle.
+     *
+     * @param index      The index of the entity.
+     * @param generation The generation of the entity.
+     * @return The handle of the entity.
+     */
+    public static long of(int index, int generation) {
+        return ((long) generation << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param handle The handle of an entity.
+     * @return The index of the entity.
+     */
+    public static int indexOf(long handle) {
+        return (int) handle;
+    }
+
+    /**
+     * @param handle The handle of an entity.
+     * @return The generation of the entity.
+     */
+    public static int generationOf(long handle) {
+        return (int) (handle >>> 32);
+    }
+}
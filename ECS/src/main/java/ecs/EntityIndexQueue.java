@@ -27,12 +27,18 @@ public class EntityIndexQueue {
      */
     private int dequeue;
 
+    /**
+     * The position of each queued index within the queue plus one, or 0 if the index is not queued.
+     */
+    private int[] positions;
+
     /**
      * Constructs a new `EntityIndexQueue` instance with an initial capacity.
      */
     public EntityIndexQueue() {
         // Initialize the queue with an initial capacity of Long.SIZE.
         this.queue = new int[Long.SIZE];
+        this.positions = new int[Long.SIZE];
     }
 
     /**
@@ -55,7 +61,10 @@ public class EntityIndexQueue {
             dequeue = index + 1;
 
         // Add the index to the queue and increment the enqueue index.
+        if (index >= positions.length)
+            positions = Arrays.copyOf(positions, Math.max(index + 1, positions.length * 2));
         queue[enqueue++] = index;
+        positions[index] = enqueue;
     }
 
     /**
@@ -78,10 +87,11 @@ public class EntityIndexQueue {
     public int pop() {
         if (enqueue > 0) {
             // Calculate the index to pop and retrieve the old index.
-            int index = (enqueue % this.queue.length) - 1;
+            int index = enqueue - 1;
             int oldIndex = this.queue[index];
             // Clear the old index and decrement the enqueue index.
             this.queue[--enqueue] = 0;
+            positions[oldIndex] = 0;
             return oldIndex;
         } else {
             // If the queue is empty, generate a new index.
@@ -89,13 +99,61 @@ public class EntityIndexQueue {
         }
     }
 
+    /**
+     * Pops enough indices to fill the given array. Recycled indices are used first, and the remaining indices are
+     * taken as one contiguous range of new indices.
+     *
+     * @param indices The array to fill with the popped indices.
+     * @return The highest index popped, or -1 if the array is empty.
+     */
+    public int pop(int[] indices) {
+        int highest = -1;
+        int i = 0;
+        for (; i < indices.length && enqueue > 0; i++) {
+            indices[i] = queue[--enqueue];
+            queue[enqueue] = 0;
+            positions[indices[i]] = 0;
+            highest = Math.max(highest, indices[i]);
+        }
+        for (; i < indices.length; i++)
+            highest = indices[i] = dequeue++;
+        return highest;
+    }
+
+    /**
+     * Takes a specific index out of circulation so it is never popped. Any unused index below it that has never been
+     * popped is pushed into the queue for later reuse. Queued indices are found through their recorded position, so
+     * reserving an index takes constant time apart from the pushed indices.
+     *
+     * @param index The index to reserve.
+     * @return `true` if the index was reserved, or `false` if it is already in use.
+     */
+    public boolean reserve(int index) {
+        if (index >= dequeue) {
+            for (int i = dequeue; i < index; i++)
+                push(i);
+            dequeue = index + 1;
+            return true;
+        }
+        int position = index < positions.length ? positions[index] - 1 : -1;
+        if (position < 0)
+            return false;
+        int last = queue[--enqueue];
+        queue[position] = last;
+        positions[last] = position + 1;
+        queue[enqueue] = 0;
+        positions[index] = 0;
+        return true;
+    }
+
     /**
      * Clears the queue, resetting the enqueue and dequeue indices.
      */
     public void clear() {
         enqueue = 0;
         dequeue = 0;
-        // Fill the queue array with zeros.
+        // Fill the queue and position arrays with zeros.
         Arrays.fill(queue, 0);
+        Arrays.fill(positions, 0);
     }
 }
\ No newline at end of file
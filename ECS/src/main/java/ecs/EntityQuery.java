@@ -0,0 +1,165 @@
+package ecs;
+
+import collections.bits.Bits;
+
+/**
+ * The `EntityQuery` class describes a set of entities by the components attached to them. An entity matches a query
+ * if it has every component of the `all` set, at least one component of the `one` set (when that set is not empty),
+ * and none of the components of the `exclude` set.
+ * <p>
+ * Queries are immutable, every method returns a new query, so they can be shared and used as keys when caching
+ * {@link EntityView}s.
+ * <pre>
+ * EntityQuery query = EntityQuery.all(Position.class, Velocity.class).exclude(Frozen.class);
+ * EntityView view = ecs.view(query);
+ * </pre>
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public final class EntityQuery {
+
+    /**
+     * The components an entity must all have.
+     */
+    private final Bits all;
+
+    /**
+     * The components an entity must have at least one of.
+     */
+    private final Bits one;
+
+    /**
+     * The components an entity must not have.
+     */
+    private final Bits exclude;
+
+    /**
+     * Every component referenced by this query.
+     */
+    private final Bits referenced;
+
+    private EntityQuery(Bits all, Bits one, Bits exclude) {
+        this.all = all;
+        this.one = one;
+        this.exclude = exclude;
+        this.referenced = all.clone();
+        this.referenced.or(one);
+        this.referenced.or(exclude);
+    }
+
+    /**
+     * Creates a query matching entities that have every one of the given components.
+     *
+     * @param classes The component classes an entity must all have.
+     * @return The new query.
+     */
+    @SafeVarargs
+    public static EntityQuery all(Class<? extends Component>... classes) {
+        Bits empty = new Bits(Component.SIGNATURE_SIZE);
+        return new EntityQuery(flagsOf(empty, classes), empty, empty);
+    }
+
+    /**
+     * Creates a query matching entities that have at least one of the given components.
+     *
+     * @param classes The component classes an entity must have at least one of.
+     * @return The new query.
+     */
+    @SafeVarargs
+    public static EntityQuery any(Class<? extends Component>... classes) {
+        Bits empty = new Bits(Component.SIGNATURE_SIZE);
+        return new EntityQuery(empty, flagsOf(empty, classes), empty);
+    }
+
+    /**
+     * Creates a copy of this query that also requires every one of the given components.
+     *
+     * @param classes The component classes an entity must all have.
+     * @return The new query.
+     */
+    @SafeVarargs
+    public final EntityQuery and(Class<? extends Component>... classes) {
+        return new EntityQuery(flagsOf(all, classes), one, exclude);
+    }
+
+    /**
+     * Creates a copy of this query that also requires at least one of the given components.
+     *
+     * @param classes The component classes an entity must have at least one of.
+     * @return The new query.
+     */
+    @SafeVarargs
+    public final EntityQuery one(Class<? extends Component>... classes) {
+        return new EntityQuery(all, flagsOf(one, classes), exclude);
+    }
+
+    /**
+     * Creates a copy of this query that rejects entities having any of the given components.
+     *
+     * @param classes The component classes an entity must not have.
+     * @return The new query.
+     */
+    @SafeVarargs
+    public final EntityQuery exclude(Class<? extends Component>... classes) {
+        return new EntityQuery(all, one, flagsOf(exclude, classes));
+    }
+
+    /**
+     * Checks if the given component flags match this query.
+     *
+     * @param flags The component flags of an entity.
+     * @return `true` if the flags match this query, otherwise `false`.
+     */
+    public boolean matches(Bits flags) {
+        return flags.containsAll(all)
+                && (one.isEmpty() || one.anyMatch(flags))
+                && !exclude.anyMatch(flags);
+    }
+
+    /**
+     * Checks if the given component index is referenced by this query, meaning that adding or removing a component
+     * with that index may change whether an entity matches.
+     *
+     * @param componentIndex The index of the component.
+     * @return `true` if the component is referenced, otherwise `false`.
+     */
+    public boolean references(int componentIndex) {
+        return referenced.get(componentIndex);
+    }
+
+    /**
+     * @return Every component referenced by this query.
+     */
+    public Bits getReferenced() {
+        return referenced.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof EntityQuery other
+                && all.matches(other.all) && one.matches(other.one) && exclude.matches(other.exclude));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * all.hashCode() + one.hashCode()) + exclude.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "EntityQuery{all=" + all + ", one=" + one + ", exclude=" + exclude + "}";
+    }
+
+    /**
+     * Copies the given flags and sets the component index of every given class.
+     */
+    @SafeVarargs
+    private static Bits flagsOf(Bits base, Class<? extends Component>... classes) {
+        Bits flags = base.clone();
+        for (var c : classes)
+            flags.set(Component.getComponentIndex(c));
+        return flags;
+    }
+}
@@ -1,17 +1,18 @@
 package ecs;
 
 import collections.array.SwapOnRemoveArray;
-import collections.array.SwapOnRemoveIntArray;
 import collections.bits.Bits;
-import collections.bits.LongBits;
+import collections.set.SparseIntSet;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The `EntitySystem` class is an abstract base class for systems in an Entity-Component-System (ECS) architecture.
@@ -25,29 +26,107 @@ import java.util.Set;
 public abstract class EntitySystem {
 
     /**
-     * A map that associates component class names with sets of systems that depend on those components.
+     * The default minimum number of entities processed by a single task in parallel mode.
      */
-    private static final HashMap<String, HashSet<EntitySystem>> systems = new HashMap<>();
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 256;
 
     /**
-     * A set of active and disabled entity indices processed by this system.
+     * The mask of the entity positions at which a time budgeted slice checks its deadline.
      */
-    private final Bits active;
+    private static final int SLICE_CHECK_MASK = 63;
 
     /**
-     * A map of component mappers associated with their respective component classes.
+     * An empty array of systems, returned for component indices no system depends on.
      */
-    private final HashMap<String, ComponentMapper> mappers;
+    private static final EntitySystem[] NO_SYSTEMS = new EntitySystem[0];
 
     /**
-     * An array of entity indices currently processed by this system.
+     * The systems that depend on each component, indexed by component index. Each inner array is replaced rather than
+     * modified when a system is registered, so it can be iterated without locking.
      */
-    private final SwapOnRemoveIntArray entities;
+    private static volatile EntitySystem[][] systems = new EntitySystem[Long.SIZE][];
+
+    /**
+     * The component mappers of this system, indexed by component index.
+     */
+    private ComponentMapper[] mappers;
+
+    /**
+     * A sparse set of the entity indices currently processed by this system.
+     */
+    private final SparseIntSet entities;
 
     /**
      * Bit flags indicating the presence of components for each entity processed by this system.
      */
-    private final LongBits componentFlags;
+    private final Bits componentFlags;
+
+    /**
+     * The archetypes matching this system, only used when the ECS is in {@link StorageMode#ARCHETYPE}.
+     */
+    private final ArrayList<Archetype> archetypes;
+
+    /**
+     * The query entities must match to be processed by this system, or `null` if any of the components is enough.
+     */
+    private final EntityQuery query;
+
+    /**
+     * Bit flags of the component classes this system reads from.
+     */
+    private final Bits readFlags;
+
+    /**
+     * Bit flags of the component classes this system writes to.
+     */
+    private final Bits writeFlags;
+
+    /**
+     * Whether this system has declared the components it accesses.
+     */
+    private boolean declaresAccess;
+
+    /**
+     * The commands deferred while this system was iterating its entities in parallel.
+     */
+    private final EntityCommandBuffer commands;
+
+    /**
+     * The structural changes made through the owning ECS while processing this system, applied in system order.
+     */
+    private final CommandBuffer<?> changes;
+
+    /**
+     * The ECS owning this system, which defers structural changes made while iterating in parallel.
+     */
+    private ECS<?> ecs;
+
+    /**
+     * The pool used to iterate entities in parallel, or `null` if this system iterates on one thread.
+     */
+    private ForkJoinPool parallelPool;
+
+    /**
+     * The minimum number of entities processed by a single task in parallel mode.
+     */
+    private int minChunkSize;
+
+    /**
+     * Whether this system is currently iterating its entities in parallel.
+     */
+    private volatile boolean iterating;
+
+    /**
+     * The number of entities processed by the most recent slice.
+     */
+    private int sliceEntities;
+
+    /**
+     * Whether this system reads components through {@link ComponentMapper} fields and leaves archetype chunks to
+     * {@link #process(int)}, which cannot work in {@link StorageMode#ARCHETYPE} as its mappers stay empty.
+     */
+    private final boolean readsMappers;
+
 
     /**
      * Constructs an `EntitySystem` instance with the specified component classes.
@@ -56,17 +135,44 @@ public abstract class EntitySystem {
      */
     @SafeVarargs
     public EntitySystem(Class<? extends Component>... classes) {
-        this.mappers = new HashMap<>();
-        this.entities = new SwapOnRemoveIntArray();
-        this.active = new Bits(Long.SIZE);
-        this.componentFlags = new LongBits();
+        this(null, classes);
+    }
+
+    /**
+     * Constructs an `EntitySystem` instance processing the entities that match the given query. Component mappers
+     * are created for every given component class, and the system is notified of changes to every class referenced
+     * by the query, whether or not it is also given.
+     *
+     * @param query   The query entities must match to be processed by this system.
+     * @param classes The component classes this system maps, in addition to those referenced by the query.
+     */
+    @SafeVarargs
+    public EntitySystem(EntityQuery query, Class<? extends Component>... classes) {
+        this.query = query;
+        this.mappers = new ComponentMapper[Long.SIZE];
+        this.entities = new SparseIntSet();
+        this.componentFlags = new Bits(Component.SIGNATURE_SIZE);
+        this.archetypes = new ArrayList<>();
+        this.readFlags = new Bits(Component.SIGNATURE_SIZE);
+        this.writeFlags = new Bits(Component.SIGNATURE_SIZE);
+        this.commands = new EntityCommandBuffer();
+        this.changes = new CommandBuffer<>();
+        this.minChunkSize = DEFAULT_MIN_CHUNK_SIZE;
 
         // Initialize component mappers and associate systems with component classes
         for (var c : classes) {
-            componentFlags.set(Component.getComponentIndex(c));
-            mappers.put(c.getName(), new ComponentMapper(c));
-            HashSet<EntitySystem> arr = systems.computeIfAbsent(c.getName(), v -> new HashSet<>());
-            arr.add(this);
+            int index = Component.getComponentIndex(c);
+            componentFlags.set(index);
+            if (index >= mappers.length)
+                mappers = Arrays.copyOf(mappers, Math.max(index + 1, mappers.length * 2));
+            if (mappers[index] == null)
+                mappers[index] = new ComponentMapper(c);
+            register(index, this);
+        }
+        if (query != null) {
+            Bits referenced = query.getReferenced();
+            for (int index = referenced.nextSetBit(0); index != -1; index = referenced.nextSetBit(index + 1))
+                register(index, this);
         }
 
         // Set type array fields to the corresponding component mappers
@@ -74,17 +180,83 @@ public abstract class EntitySystem {
             field.setAccessible(true);
             // Look for any component mapper fields
             if (field.getType().isAssignableFrom(ComponentMapper.class)) {
-                if (field.getGenericType() instanceof ParameterizedType genericType) {
-                    Type type = genericType.getActualTypeArguments()[0];
+                if (field.getGenericType() instanceof ParameterizedType genericType
+                        && genericType.getActualTypeArguments()[0] instanceof Class<?> type
+                        && Component.class.isAssignableFrom(type)) {
                     try {
                         // Set type array field to the specific type
-                        field.set(this, mappers.get(type.getTypeName()));
+                        field.set(this, getMapper(type.asSubclass(Component.class)));
                     } catch (Exception e) {
                         e.printStackTrace();
                     }
                 }
             }
         }
+        this.readsMappers = hasMapperFields() && !processesChunks();
+    }
+
+    /**
+     * @return `true` if this system or one of its superclasses declares a {@link ComponentMapper} field.
+     */
+    private boolean hasMapperFields() {
+        for (Class<?> type = getClass(); type != EntitySystem.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (ComponentMapper.class.isAssignableFrom(field.getType()))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return `true` if this system overrides {@link #process(ArchetypeChunk)}.
+     */
+    private boolean processesChunks() {
+        for (Class<?> type = getClass(); type != EntitySystem.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod("process", ArchetypeChunk.class);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ensures this system can be processed in the given storage mode.
+     *
+     * @param mode The storage mode of the ECS owning this system.
+     * @throws IllegalStateException if the mode is {@link StorageMode#ARCHETYPE} and this system reads components
+     *                               through component mappers without overriding {@link #process(ArchetypeChunk)}.
+     */
+    void checkMode(StorageMode mode) {
+        if (mode == StorageMode.ARCHETYPE && readsMappers)
+            throw new IllegalStateException(getClass().getName() + " reads component mappers, which are not populated"
+                    + " in StorageMode.ARCHETYPE; override process(ArchetypeChunk) or use StorageMode.MAPPED");
+    }
+
+    /**
+     * Binds this system to the ECS owning it, setting every {@link PackedComponentStore} field of this system to the
+     * store of the ECS.
+     *
+     * @param ecs The ECS owning this system.
+     */
+    @SuppressWarnings("unchecked")
+    void bind(ECS<?> ecs) {
+        this.ecs = ecs;
+        for (Field field : this.getClass().getDeclaredFields()) {
+            if (field.getType() != PackedComponentStore.class)
+                continue;
+            if (field.getGenericType() instanceof ParameterizedType genericType
+                    && genericType.getActualTypeArguments()[0] instanceof Class<?> type) {
+                try {
+                    field.setAccessible(true);
+                    field.set(this, ecs.getPackedStore((Class<? extends Component>) type));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
     }
 
     /**
@@ -94,7 +266,46 @@ public abstract class EntitySystem {
      * @return An unmodifiable set of systems that depend on the specified component class.
      */
     public static Set<EntitySystem> getSystems(Class<? extends Component> clazz) {
-        return Collections.unmodifiableSet(systems.get(clazz.getName()));
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(getSystems(Component.getComponentIndex(clazz)))));
+    }
+
+    /**
+     * Retrieves the systems associated with a given component index. The returned array must not be modified.
+     *
+     * @param componentIndex The index of the component.
+     * @return The systems that depend on the specified component.
+     */
+    public static EntitySystem[] getSystems(int componentIndex) {
+        EntitySystem[][] current = systems;
+        if (componentIndex >= current.length)
+            return NO_SYSTEMS;
+        EntitySystem[] array = current[componentIndex];
+        return array == null ? NO_SYSTEMS : array;
+    }
+
+    /**
+     * Associates a system with a component index.
+     *
+     * @param componentIndex The index of the component.
+     * @param system         The system depending on the component.
+     */
+    private static synchronized void register(int componentIndex, EntitySystem system) {
+        EntitySystem[][] current = systems;
+        if (componentIndex >= current.length)
+            current = systems = Arrays.copyOf(current, Math.max(componentIndex + 1, current.length * 2));
+
+        EntitySystem[] array = current[componentIndex];
+        if (array == null) {
+            current[componentIndex] = new EntitySystem[]{system};
+            return;
+        }
+        for (EntitySystem existing : array) {
+            if (existing == system)
+                return;
+        }
+        EntitySystem[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = system;
+        current[componentIndex] = copy;
     }
 
     /**
@@ -104,7 +315,17 @@ public abstract class EntitySystem {
      * @return The component mapper for the specified component class.
      */
     public ComponentMapper getMapper(Class<? extends Component> clazz) {
-        return mappers.get(clazz.getName());
+        return getMapper(Component.getComponentIndex(clazz));
+    }
+
+    /**
+     * Retrieves the component mapper associated with a given component index.
+     *
+     * @param componentIndex The index of the component.
+     * @return The component mapper for the specified component, or `null` if this system does not depend on it.
+     */
+    public ComponentMapper getMapper(int componentIndex) {
+        return componentIndex < mappers.length ? mappers[componentIndex] : null;
     }
 
     /**
@@ -113,9 +334,10 @@ public abstract class EntitySystem {
      * @param entityID The index of the entity to be added.
      */
     public void add(int entityID) {
-        if (active.get(entityID))
+        if (iterating) {
+            commands.add(entityID);
             return;
-        active.set(entityID);
+        }
         entities.add(entityID);
     }
 
@@ -125,9 +347,41 @@ public abstract class EntitySystem {
      * @param entityID The index of the entity to be removed.
      */
     public void remove(int entityID) {
-        if (active.get(entityID)) {
-            active.clear(entityID);
-            entities.removeValue(entityID);
+        if (iterating) {
+            commands.remove(entityID);
+            return;
+        }
+        entities.remove(entityID);
+    }
+
+    /**
+     * Checks if an entity is currently processed by this system.
+     *
+     * @param entityID The index of the entity.
+     * @return `true` if the entity is within this system, otherwise `false`.
+     */
+    public boolean contains(int entityID) {
+        return entities.contains(entityID);
+    }
+
+    /**
+     * @return The number of entities currently processed by this system.
+     */
+    public int size() {
+        return entities.size();
+    }
+
+    /**
+     * Grows the membership of this system and its component mappers once, so entity indices below the given capacity
+     * can be added without resizing.
+     *
+     * @param capacity The number of entity indices to make room for.
+     */
+    void ensureCapacity(int capacity) {
+        entities.ensureCapacity(capacity);
+        for (ComponentMapper mapper : mappers) {
+            if (mapper != null)
+                mapper.ensureCapacity(capacity);
         }
     }
 
@@ -138,22 +392,423 @@ public abstract class EntitySystem {
      * @return `true` if the entity meets the component requirements, otherwise `false`.
      */
     public boolean canStay(Entity entity) {
+        if (query != null)
+            return query.matches(entity.getComponentFlags());
         return componentFlags.anyMatch(entity.getComponentFlags());
     }
 
+    /**
+     * Checks if an entity can be added to this system after one of its components was added. Without a query any
+     * entity having one of the components of this system is accepted.
+     *
+     * @param entity The entity to be checked.
+     * @return `true` if the entity should be processed by this system, otherwise `false`.
+     */
+    public boolean accepts(Entity entity) {
+        return query == null || query.matches(entity.getComponentFlags());
+    }
+
+    /**
+     * @return The query entities must match to be processed by this system, or `null` if none was given.
+     */
+    public EntityQuery getQuery() {
+        return query;
+    }
+
     /**
      * Processes all active entities, invoking the specific logic implemented in the subclass.
      */
     public final void process() {
-        for (int i = 0, s = entities.size(); s > i; i++) {
+        int size = entities.size();
+        if (parallelPool != null && size > minChunkSize) {
+            iterateInParallel(new EntityRangeTask(this, entities.getData(), 0, size, minChunkSize));
+            return;
+        }
+        for (int i = 0; size > i; i++) {
             process(entities.get(i));
         }
     }
 
+    /**
+     * Processes only the entities of this system that were marked in the given change set, in order of their index,
+     * and clears the change set afterwards. Marked entities that were removed or no longer belong to this system are
+     * skipped.
+     *
+     * @param ecs     The ECS holding the entities of this system.
+     * @param changes The change set holding the entities to process.
+     */
+    public void processChanged(ECS<?> ecs, ChangeSet changes) {
+        ArchetypeStorage storage = ecs.getStorage();
+        for (int id = changes.nextSetBit(0); id != -1; id = changes.nextSetBit(id + 1)) {
+            if (storage == null) {
+                if (entities.contains(id))
+                    process(id);
+            } else {
+                Archetype archetype = storage.getArchetype(id);
+                if (archetype != null && matches(archetype))
+                    process(id);
+            }
+        }
+        changes.clear();
+    }
+
+    /**
+     * Enables parallel iteration of the entities of this system. The entities are split into tasks of at least
+     * the given size which are distributed across the pool using work stealing, so systems with fewer entities than
+     * the minimum chunk size are still processed on the calling thread. Any entity added to or removed from this
+     * system while iterating in parallel is deferred until the iteration has finished, and so are components added
+     * or removed and entities removed through the owning {@link ECS}, even when this system is processed outside of
+     * {@link ECS#process()}.
+     * <p>
+     * The logic of {@link #process(int)} must be safe to execute for different entities at the same time.
+     *
+     * @param pool         The pool used to iterate entities in parallel.
+     * @param minChunkSize The minimum number of entities processed by a single task.
+     */
+    public void setParallel(ForkJoinPool pool, int minChunkSize) {
+        if (minChunkSize < 1)
+            throw new IllegalArgumentException("Minimum chunk size must be positive");
+        this.parallelPool = pool;
+        this.minChunkSize = minChunkSize;
+    }
+
+    /**
+     * Disables parallel iteration, processing every entity on the calling thread.
+     */
+    public void setSerial() {
+        this.parallelPool = null;
+    }
+
+    /**
+     * @return `true` if this system iterates its entities in parallel, otherwise `false`.
+     */
+    public boolean isParallel() {
+        return parallelPool != null;
+    }
+
+    /**
+     * @return The commands deferred while this system was iterating its entities in parallel.
+     */
+    public EntityCommandBuffer getCommandBuffer() {
+        return commands;
+    }
+
+    /**
+     * Runs a parallel iteration task as processing of the owning ECS, so components added or removed and entities
+     * removed by the tasks are recorded in its thread-safe {@link CommandBuffer} instead of changing shared state
+     * from several threads at once. If the ECS was not processing already, the changes are applied once the
+     * iteration has finished.
+     *
+     * @param task The task iterating the entities of this system.
+     */
+    private void iterateInParallel(RecursiveAction task) {
+        iterating = true;
+        try {
+            if (ecs == null)
+                parallelPool.invoke(task);
+            else
+                ecs.defer(() -> parallelPool.invoke(task));
+        } finally {
+            iterating = false;
+            commands.flush(this);
+        }
+    }
+
+    /**
+     * Declares the component classes this system only reads from. Systems that do not conflict with each other
+     * can be processed at the same time by a {@link SystemScheduler}.
+     *
+     * @param classes The component classes read by this system.
+     */
+    @SafeVarargs
+    protected final void reads(Class<? extends Component>... classes) {
+        declaresAccess = true;
+        for (var c : classes)
+            readFlags.set(Component.getComponentIndex(c));
+    }
+
+    /**
+     * Declares the component classes this system writes to. Systems that do not conflict with each other
+     * can be processed at the same time by a {@link SystemScheduler}.
+     *
+     * @param classes The component classes written by this system.
+     */
+    @SafeVarargs
+    protected final void writes(Class<? extends Component>... classes) {
+        declaresAccess = true;
+        for (var c : classes)
+            writeFlags.set(Component.getComponentIndex(c));
+    }
+
+    /**
+     * Checks if this system and another system cannot be processed at the same time. A system that has not
+     * declared its component access conflicts with every other system.
+     *
+     * @param other The other system.
+     * @return `true` if either system writes to a component class the other one accesses, otherwise `false`.
+     */
+    public boolean conflictsWith(EntitySystem other) {
+        if (!declaresAccess || !other.declaresAccess)
+            return true;
+        return writeFlags.anyMatch(other.writeFlags)
+                || writeFlags.anyMatch(other.readFlags)
+                || readFlags.anyMatch(other.writeFlags);
+    }
+
+    /**
+     * Processes this system using the given storage mode.
+     *
+     * @param mode The storage mode of the ECS owning this system.
+     */
+    final void process(StorageMode mode) {
+        checkMode(mode);
+        CommandBuffer<?> previous = beginRecording();
+        try {
+            if (mode == StorageMode.ARCHETYPE)
+                processArchetypes();
+            else
+                process();
+        } finally {
+            endRecording(previous);
+        }
+    }
+
+    /**
+     * Processes entities of this system in order, starting at the given position, until every entity has been
+     * processed or the deadline has passed, always processing at least one entity or chunk. This spreads the entities
+     * of a heavy system across several ticks. In {@link StorageMode#ARCHETYPE} the position counts whole chunks, so a
+     * chunk is never split between ticks.
+     * <p>
+     * Entities added or removed between slices may be skipped or processed twice in the same pass.
+     *
+     * @param mode     The storage mode of the ECS owning this system.
+     * @param position The position to resume from, 0 to start a new pass.
+     * @param deadline The {@link System#nanoTime()} after which no more entities are started.
+     * @return The position to resume from in the next slice, or -1 if the pass is complete.
+     */
+    final int processSlice(StorageMode mode, int position, long deadline) {
+        checkMode(mode);
+        CommandBuffer<?> previous = beginRecording();
+        try {
+            return slice(mode, position, deadline);
+        } finally {
+            endRecording(previous);
+        }
+    }
+
+    /**
+     * Processes the entities of a single slice, see {@link #processSlice(StorageMode, int, long)}.
+     */
+    private int slice(StorageMode mode, int position, long deadline) {
+        int start = position;
+        sliceEntities = 0;
+        if (mode == StorageMode.ARCHETYPE) {
+            int skip = position;
+            for (int a = 0, size = archetypes.size(); a < size; a++) {
+                Archetype archetype = archetypes.get(a);
+                for (int c = 0, chunks = archetype.chunkCount(); c < chunks; c++) {
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+                    if (position != start && System.nanoTime() >= deadline)
+                        return position;
+                    ArchetypeChunk chunk = archetype.getChunk(c);
+                    process(chunk);
+                    sliceEntities += chunk.size();
+                    position++;
+                }
+            }
+            return -1;
+        }
+        for (int size = entities.size(); position < size; position++, sliceEntities++) {
+            if (position != start && (position & SLICE_CHECK_MASK) == 0 && System.nanoTime() >= deadline)
+                return position;
+            process(entities.get(position));
+        }
+        return -1;
+    }
+
+    /**
+     * Makes the calling thread record the structural changes it makes through the owning ECS into the buffer of this
+     * system.
+     *
+     * @return The buffer the calling thread recorded into before.
+     */
+    private CommandBuffer<?> beginRecording() {
+        return ecs == null ? null : ecs.recordInto(changes);
+    }
+
+    /**
+     * Restores the buffer the calling thread recorded into before {@link #beginRecording()}.
+     *
+     * @param previous The buffer returned by {@link #beginRecording()}.
+     */
+    private void endRecording(CommandBuffer<?> previous) {
+        if (ecs != null)
+            ecs.recordInto(previous);
+    }
+
+    /**
+     * @return The structural changes made through the owning ECS while processing this system and not applied yet.
+     */
+    CommandBuffer<?> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return The number of entities processed by the most recent slice, counting every entity of each processed
+     * chunk in {@link StorageMode#ARCHETYPE}.
+     */
+    int getSliceEntityCount() {
+        return sliceEntities;
+    }
+
+    /**
+     * Processes every chunk of every archetype matching this system.
+     */
+    final void processArchetypes() {
+        if (parallelPool != null) {
+            int count = 0;
+            ArrayList<ArchetypeChunk> chunks = new ArrayList<>();
+            for (int a = 0, size = archetypes.size(); a < size; a++) {
+                Archetype archetype = archetypes.get(a);
+                count += archetype.size();
+                for (int c = 0, n = archetype.chunkCount(); c < n; c++)
+                    chunks.add(archetype.getChunk(c));
+            }
+            if (count > minChunkSize) {
+                int perTask = Math.max(1, minChunkSize / ArchetypeStorage.DEFAULT_CHUNK_CAPACITY);
+                iterateInParallel(new ChunkRangeTask(this, chunks, 0, chunks.size(), perTask));
+                return;
+            }
+        }
+        for (int a = 0, size = archetypes.size(); a < size; a++) {
+            Archetype archetype = archetypes.get(a);
+            for (int c = 0, chunks = archetype.chunkCount(); c < chunks; c++) {
+                process(archetype.getChunk(c));
+            }
+        }
+    }
+
+    /**
+     * Processes a chunk of entities sharing the same archetype. This is only called when the ECS is in
+     * {@link StorageMode#ARCHETYPE}. Subclasses can override this method to iterate the component columns of the
+     * chunk directly through {@link ArchetypeChunk#getColumn(Class)}; by default every entity of the chunk is passed
+     * to {@link #process(int)}.
+     *
+     * @param chunk The chunk of entities to process.
+     */
+    protected void process(ArchetypeChunk chunk) {
+        int[] ids = chunk.getEntities();
+        for (int i = 0, s = chunk.size(); s > i; i++) {
+            process(ids[i]);
+        }
+    }
+
+    /**
+     * Checks if an archetype contains entities this system is interested in.
+     *
+     * @param archetype The archetype to be checked.
+     * @return `true` if the archetype matches the component requirements, otherwise `false`.
+     */
+    public boolean matches(Archetype archetype) {
+        if (query != null)
+            return query.matches(archetype.getSignature());
+        return componentFlags.anyMatch(archetype.getSignature());
+    }
+
+    /**
+     * @return The number of entities within the archetypes matching this system.
+     */
+    int archetypeEntityCount() {
+        int count = 0;
+        for (int a = 0, size = archetypes.size(); a < size; a++)
+            count += archetypes.get(a).size();
+        return count;
+    }
+
+    /**
+     * Registers an archetype matching this system.
+     *
+     * @param archetype The archetype to register.
+     */
+    void addArchetype(Archetype archetype) {
+        archetypes.add(archetype);
+    }
+
     /**
      * Abstract method to be implemented by subclasses, defining the logic to be executed on each entity.
      *
      * @param entityID The index of the entity to be processed.
      */
     public abstract void process(int entityID);
-}
\ No newline at end of file
+
+    /**
+     * A task processing a range of entity indices, splitting itself in half until the range is small enough.
+     */
+    private static final class EntityRangeTask extends RecursiveAction {
+        private final EntitySystem system;
+        private final int[] ids;
+        private final int from, to, threshold;
+
+        private EntityRangeTask(EntitySystem system, int[] ids, int from, int to, int threshold) {
+            this.system = system;
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                CommandBuffer<?> previous = system.beginRecording();
+                try {
+                    for (int i = from; i < to; i++)
+                        system.process(ids[i]);
+                } finally {
+                    system.endRecording(previous);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EntityRangeTask(system, ids, from, middle, threshold),
+                    new EntityRangeTask(system, ids, middle, to, threshold));
+        }
+    }
+
+    /**
+     * A task processing a range of archetype chunks, splitting itself in half until the range is small enough.
+     */
+    private static final class ChunkRangeTask extends RecursiveAction {
+        private final EntitySystem system;
+        private final ArrayList<ArchetypeChunk> chunks;
+        private final int from, to, threshold;
+
+        private ChunkRangeTask(EntitySystem system, ArrayList<ArchetypeChunk> chunks, int from, int to, int threshold) {
+            this.system = system;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                CommandBuffer<?> previous = system.beginRecording();
+                try {
+                    for (int i = from; i < to; i++)
+                        system.process(chunks.get(i));
+                } finally {
+                    system.endRecording(previous);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkRangeTask(system, chunks, from, middle, threshold),
+                    new ChunkRangeTask(system, chunks, middle, to, threshold));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ecs;
+
+import collections.set.SparseIntSet;
+
+/**
+ * The `EntityView` class is a cached set of the entities matching an {@link EntityQuery}. Views are obtained through
+ * {@link ECS#view(EntityQuery)} and are updated incrementally whenever a component referenced by their query is added
+ * to or removed from an entity, so any number of systems or gameplay code can iterate the same view without
+ * rescanning every entity.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class EntityView {
+
+    /**
+     * The query describing the entities of this view.
+     */
+    private final EntityQuery query;
+
+    /**
+     * A sparse set of the entity indices within this view, packed densely for iteration.
+     */
+    private final SparseIntSet entities;
+
+    /**
+     * Constructs a new, empty `EntityView` for the given query.
+     *
+     * @param query The query describing the entities of this view.
+     */
+    EntityView(EntityQuery query) {
+        this.query = query;
+        this.entities = new SparseIntSet();
+    }
+
+    /**
+     * Adds or removes an entity from this view depending on whether it matches the query.
+     *
+     * @param entity The entity to update.
+     */
+    void update(Entity entity) {
+        int id = entity.getIndex();
+        if (query.matches(entity.getComponentFlags())) {
+            entities.add(id);
+        } else {
+            remove(id);
+        }
+    }
+
+    /**
+     * Removes an entity from this view.
+     *
+     * @param entityID The index of the entity.
+     */
+    void remove(int entityID) {
+        entities.remove(entityID);
+    }
+
+    /**
+     * Checks if an entity is within this view.
+     *
+     * @param entityID The index of the entity.
+     * @return `true` if the entity matches the query of this view, otherwise `false`.
+     */
+    public boolean contains(int entityID) {
+        return entities.contains(entityID);
+    }
+
+    /**
+     * Retrieves the entity index at the given position within this view.
+     *
+     * @param index The position within this view.
+     * @return The entity index at the position.
+     */
+    public int get(int index) {
+        return entities.get(index);
+    }
+
+    /**
+     * @return The number of entities within this view.
+     */
+    public int size() {
+        return entities.size();
+    }
+
+    /**
+     * @return The entity indices within this view. Only the first {@link #size()} elements are valid.
+     */
+    public int[] getEntities() {
+        return entities.getData();
+    }
+
+    /**
+     * @return The query describing the entities of this view.
+     */
+    public EntityQuery getQuery() {
+        return query;
+    }
+}
@@ -0,0 +1,21 @@
+package ecs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Component} class as packed. The primitive fields of a packed component are not kept within
+ * component instances, but are copied into a {@link PackedComponentStore} that stores every field as its own primitive
+ * array indexed by entity index. Instances of a packed component only carry values into and out of the store,
+ * so a single instance can be reused for any number of entities.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Packed {
+}
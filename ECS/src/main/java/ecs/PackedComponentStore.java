@@ -0,0 +1,399 @@
+package ecs;
+
+import collections.array.ResizingByteArray;
+import collections.array.ResizingCharArray;
+import collections.array.ResizingDoubleArray;
+import collections.array.ResizingFloatArray;
+import collections.array.ResizingIntArray;
+import collections.array.ResizingLongArray;
+import collections.array.ResizingShortArray;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The `PackedComponentStore` class stores the fields of a {@link Packed} component as parallel primitive arrays,
+ * one array per field, indexed directly by entity index. A position component with the fields `x` and `y` is stored as
+ * two float arrays rather than one object per entity, which removes the object header of every component and lets
+ * bulk loops over a single field run over contiguous memory.
+ * <p>
+ * Supported field types are all primitive types. Boolean fields are stored as bytes, where 1 is `true`. Fields declared
+ * by superclasses of the component are packed as well. The {@link VarHandle} of every field is resolved once when the
+ * store is created, and its accessors are adapted to take any component so they can be invoked exactly.
+ *
+ * @param <T> The type of the packed component.
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class PackedComponentStore<T extends Component> {
+
+    private static final byte BYTE = 0, SHORT = 1, CHAR = 2, INT = 3, LONG = 4, FLOAT = 5, DOUBLE = 6, BOOLEAN = 7;
+
+    /**
+     * The class of the packed component.
+     */
+    private final Class<T> type;
+
+    /**
+     * The primitive fields of the packed component.
+     */
+    private final Field[] fields;
+
+    /**
+     * The getter of each field, taking a component and returning the primitive value of the field.
+     */
+    private final MethodHandle[] getters;
+
+    /**
+     * The setter of each field, taking a component and the primitive value to store into the field.
+     */
+    private final MethodHandle[] setters;
+
+    /**
+     * The kind of primitive stored by each field.
+     */
+    private final byte[] kinds;
+
+    /**
+     * The resizing primitive array storing each field.
+     */
+    private final Object[] columns;
+
+    /**
+     * A map that associates field names with their column.
+     */
+    private final HashMap<String, Integer> names;
+
+    /**
+     * Constructs a new `PackedComponentStore` for the given packed component class.
+     *
+     * @param type The class of the packed component.
+     * @throws IllegalArgumentException if the class is not annotated with {@link Packed}, has non primitive fields,
+     *                                  declares two fields of the same name or cannot be accessed.
+     */
+    public PackedComponentStore(Class<T> type) {
+        if (!type.isAnnotationPresent(Packed.class))
+            throw new IllegalArgumentException(type.getName() + " is not annotated with @Packed");
+
+        ArrayList<Field> primitives = new ArrayList<>();
+        ArrayList<VarHandle> handles = new ArrayList<>();
+        for (Class<?> declaring = type; declaring != Component.class; declaring = declaring.getSuperclass()) {
+            MethodHandles.Lookup lookup;
+            try {
+                lookup = MethodHandles.privateLookupIn(declaring, MethodHandles.lookup());
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Package of " + declaring.getName() + " is not open to "
+                        + PackedComponentStore.class.getModule(), e);
+            }
+            for (Field field : declaring.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()))
+                    continue;
+                if (!field.getType().isPrimitive())
+                    throw new IllegalArgumentException("Packed field " + field.getName() + " must be primitive");
+                try {
+                    handles.add(lookup.unreflectVarHandle(field));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalArgumentException("Packed field " + field.getName() + " cannot be accessed", e);
+                }
+                primitives.add(field);
+            }
+        }
+
+        this.type = type;
+        this.fields = primitives.toArray(new Field[0]);
+        this.getters = new MethodHandle[fields.length];
+        this.setters = new MethodHandle[fields.length];
+        this.kinds = new byte[fields.length];
+        this.columns = new Object[fields.length];
+        this.names = new HashMap<>();
+
+        for (int i = 0; i < fields.length; i++) {
+            Class<?> c = fields[i].getType();
+            if (names.put(fields[i].getName(), i) != null)
+                throw new IllegalArgumentException("Packed field " + fields[i].getName() + " is declared twice");
+            VarHandle handle = handles.get(i);
+            getters[i] = handle.toMethodHandle(VarHandle.AccessMode.GET)
+                    .asType(MethodType.methodType(c, Component.class));
+            setters[i] = handle.toMethodHandle(VarHandle.AccessMode.SET)
+                    .asType(MethodType.methodType(void.class, Component.class, c));
+            if (c == float.class) {
+                kinds[i] = FLOAT;
+                columns[i] = new ResizingFloatArray(Short.SIZE);
+            } else if (c == int.class) {
+                kinds[i] = INT;
+                columns[i] = new ResizingIntArray(Short.SIZE);
+            } else if (c == long.class) {
+                kinds[i] = LONG;
+                columns[i] = new ResizingLongArray(Short.SIZE);
+            } else if (c == double.class) {
+                kinds[i] = DOUBLE;
+                columns[i] = new ResizingDoubleArray(Short.SIZE);
+            } else if (c == short.class) {
+                kinds[i] = SHORT;
+                columns[i] = new ResizingShortArray(Short.SIZE);
+            } else if (c == char.class) {
+                kinds[i] = CHAR;
+                columns[i] = new ResizingCharArray(Short.SIZE);
+            } else if (c == byte.class) {
+                kinds[i] = BYTE;
+                columns[i] = new ResizingByteArray(Short.SIZE);
+            } else {
+                kinds[i] = BOOLEAN;
+                columns[i] = new ResizingByteArray(Short.SIZE);
+            }
+        }
+    }
+
+    /**
+     * Checks if a component class is packed.
+     *
+     * @param type The component class.
+     * @return `true` if the class is annotated with {@link Packed}, otherwise `false`.
+     */
+    public static boolean isPacked(Class<?> type) {
+        return type.isAnnotationPresent(Packed.class);
+    }
+
+    /**
+     * Copies every field of the given component into the columns of an entity.
+     *
+     * @param entityID  The index of the entity.
+     * @param component The component carrying the values to copy.
+     */
+    public void load(int entityID, T component) {
+        Component c = component;
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                MethodHandle h = getters[i];
+                switch (kinds[i]) {
+                    case FLOAT -> ((ResizingFloatArray) columns[i]).set(entityID, (float) h.invokeExact(c));
+                    case INT -> ((ResizingIntArray) columns[i]).set(entityID, (int) h.invokeExact(c));
+                    case LONG -> ((ResizingLongArray) columns[i]).set(entityID, (long) h.invokeExact(c));
+                    case DOUBLE -> ((ResizingDoubleArray) columns[i]).set(entityID, (double) h.invokeExact(c));
+                    case SHORT -> ((ResizingShortArray) columns[i]).set(entityID, (short) h.invokeExact(c));
+                    case CHAR -> ((ResizingCharArray) columns[i]).set(entityID, (char) h.invokeExact(c));
+                    case BYTE -> ((ResizingByteArray) columns[i]).set(entityID, (byte) h.invokeExact(c));
+                    default -> ((ResizingByteArray) columns[i]).set(entityID, (byte) ((boolean) h.invokeExact(c) ? 1 : 0));
+                }
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to read packed component " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Copies the columns of an entity into the fields of the given component.
+     *
+     * @param entityID The index of the entity.
+     * @param into     The component receiving the values.
+     * @return The given component.
+     */
+    public T read(int entityID, T into) {
+        Component c = into;
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                MethodHandle h = setters[i];
+                switch (kinds[i]) {
+                    case FLOAT -> h.invokeExact(c, valueOf((ResizingFloatArray) columns[i], entityID));
+                    case INT -> h.invokeExact(c, valueOf((ResizingIntArray) columns[i], entityID));
+                    case LONG -> h.invokeExact(c, valueOf((ResizingLongArray) columns[i], entityID));
+                    case DOUBLE -> h.invokeExact(c, valueOf((ResizingDoubleArray) columns[i], entityID));
+                    case SHORT -> h.invokeExact(c, valueOf((ResizingShortArray) columns[i], entityID));
+                    case CHAR -> h.invokeExact(c, valueOf((ResizingCharArray) columns[i], entityID));
+                    case BYTE -> h.invokeExact(c, valueOf((ResizingByteArray) columns[i], entityID));
+                    default -> h.invokeExact(c, valueOf((ResizingByteArray) columns[i], entityID) != 0);
+                }
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to write packed component " + type.getName(), e);
+        }
+        return into;
+    }
+
+    /**
+     * Resets every column of an entity to zero.
+     *
+     * @param entityID The index of the entity.
+     */
+    public void clear(int entityID) {
+        for (int i = 0; i < fields.length; i++) {
+            switch (kinds[i]) {
+                case FLOAT -> clear((ResizingFloatArray) columns[i], entityID);
+                case INT -> clear((ResizingIntArray) columns[i], entityID);
+                case LONG -> clear((ResizingLongArray) columns[i], entityID);
+                case DOUBLE -> clear((ResizingDoubleArray) columns[i], entityID);
+                case SHORT -> clear((ResizingShortArray) columns[i], entityID);
+                case CHAR -> clear((ResizingCharArray) columns[i], entityID);
+                default -> clear((ResizingByteArray) columns[i], entityID);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the column of a float field.
+     *
+     * @param field The name of the field.
+     * @return The column storing the field.
+     */
+    public ResizingFloatArray getFloats(String field) {
+        return column(field, FLOAT);
+    }
+
+    /**
+     * Retrieves the column of an int field.
+     *
+     * @param field The name of the field.
+     * @return The column storing the field.
+     */
+    public ResizingIntArray getInts(String field) {
+        return column(field, INT);
+    }
+
+    /**
+     * Retrieves the column of a long field.
+     *
+     * @param field The name of the field.
+     * @return The column storing the field.
+     */
+    public ResizingLongArray getLongs(String field) {
+        return column(field, LONG);
+    }
+
+    /**
+     * Retrieves the column of a double field.
+     *
+     * @param field The name of the field.
+     * @return The column storing the field.
+     */
+    public ResizingDoubleArray getDoubles(String field) {
+        return column(field, DOUBLE);
+    }
+
+    /**
+     * Retrieves the column of a short field.
+     *
+     * @param field The name of the field.
+     * @return The column storing the field.
+     */
+    public ResizingShortArray getShorts(String field) {
+        return column(field, SHORT);
+    }
+
+    /**
+     * Retrieves the column of a char field.
+     *
+     * @param field The name of the field.
+     * @return The column storing the field.
+     */
+    public ResizingCharArray getChars(String field) {
+        return column(field, CHAR);
+    }
+
+    /**
+     * Retrieves the column of a byte or boolean field.
+     *
+     * @param field The name of the field.
+     * @return The column storing the field.
+     */
+    public ResizingByteArray getBytes(String field) {
+        int column = indexOf(field);
+        if (kinds[column] != BYTE && kinds[column] != BOOLEAN)
+            throw new IllegalArgumentException("Packed field " + field + " is not a byte or boolean");
+        return (ResizingByteArray) columns[column];
+    }
+
+    /**
+     * @return The class of the packed component.
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return The names of the packed fields, ordered by column.
+     */
+    public String[] getFieldNames() {
+        String[] result = new String[fields.length];
+        for (int i = 0; i < fields.length; i++)
+            result[i] = fields[i].getName();
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C> C column(String field, byte kind) {
+        int column = indexOf(field);
+        if (kinds[column] != kind)
+            throw new IllegalArgumentException("Packed field " + field + " is of type " + fields[column].getType());
+        return (C) columns[column];
+    }
+
+    private int indexOf(String field) {
+        Integer column = names.get(field);
+        if (column == null)
+            throw new IllegalArgumentException(type.getName() + " has no packed field named " + field);
+        return column;
+    }
+
+    private static float valueOf(ResizingFloatArray a, int i) {
+        return i < a.length() ? a.get(i) : 0;
+    }
+
+    private static int valueOf(ResizingIntArray a, int i) {
+        return i < a.length() ? a.get(i) : 0;
+    }
+
+    private static long valueOf(ResizingLongArray a, int i) {
+        return i < a.length() ? a.get(i) : 0;
+    }
+
+    private static double valueOf(ResizingDoubleArray a, int i) {
+        return i < a.length() ? a.get(i) : 0;
+    }
+
+    private static short valueOf(ResizingShortArray a, int i) {
+        return i < a.length() ? a.get(i) : 0;
+    }
+
+    private static char valueOf(ResizingCharArray a, int i) {
+        return i < a.length() ? a.get(i) : 0;
+    }
+
+    private static byte valueOf(ResizingByteArray a, int i) {
+        return i < a.length() ? a.get(i) : 0;
+    }
+
+    private static void clear(ResizingFloatArray a, int i) {
+        if (i < a.length()) a.set(i, 0);
+    }
+
+    private static void clear(ResizingIntArray a, int i) {
+        if (i < a.length()) a.set(i, 0);
+    }
+
+    private static void clear(ResizingLongArray a, int i) {
+        if (i < a.length()) a.set(i, 0);
+    }
+
+    private static void clear(ResizingDoubleArray a, int i) {
+        if (i < a.length()) a.set(i, 0);
+    }
+
+    private static void clear(ResizingShortArray a, int i) {
+        if (i < a.length()) a.set(i, (short) 0);
+    }
+
+    private static void clear(ResizingCharArray a, int i) {
+        if (i < a.length()) a.set(i, (char) 0);
+    }
+
+    private static void clear(ResizingByteArray a, int i) {
+        if (i < a.length()) a.set(i, (byte) 0);
+    }
+}
@@ -0,0 +1,437 @@
+package ecs;
+
+import collections.array.ResizingFloatArray;
+import collections.array.ResizingIntArray;
+import collections.array.ResizingLongArray;
+import collections.bits.Bits;
+import math.geometry.Point;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The `SpatialGrid` class is a spatial hash of entity positions, dividing space into square cells of a fixed size.
+ * Only cells holding entities take up memory, so the space covered is unbounded. Moving an entity within its cell
+ * only updates its position, and moving it to another cell relinks it in constant time.
+ * <p>
+ * Radius and box queries visit only the cells overlapping the queried area, and write the matching entity indices
+ * into an array given by the caller or pass them to a consumer, so no memory is allocated per query. The cell size
+ * should be about the radius of the most common query.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ * @see SpatialIndex
+ */
+public class SpatialGrid {
+
+    /**
+     * The marker of an empty link between entities.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The size of each cell.
+     */
+    private final float cellSize;
+
+    /**
+     * The inverse of the cell size, used to find the cell of a position without dividing.
+     */
+    private final float inverseCellSize;
+
+    /**
+     * The key of each slot of the cell table.
+     */
+    private long[] keys;
+
+    /**
+     * The first entity of each slot of the cell table, or {@link #NONE} if the slot is empty.
+     */
+    private int[] heads;
+
+    /**
+     * Whether each slot of the cell table holds a cell.
+     */
+    private boolean[] used;
+
+    /**
+     * The number of cells within the cell table.
+     */
+    private int cells;
+
+    /**
+     * The position of each entity, indexed by entity index.
+     */
+    private final ResizingFloatArray xs, ys;
+
+    /**
+     * The key of the cell holding each entity, indexed by entity index.
+     */
+    private final ResizingLongArray cellOf;
+
+    /**
+     * The next and previous entity within the same cell, indexed by entity index.
+     */
+    private final ResizingIntArray next, previous;
+
+    /**
+     * The entity indices within this grid.
+     */
+    private final Bits present;
+
+    /**
+     * The number of entities within this grid.
+     */
+    private int size;
+
+    /**
+     * Constructs a new `SpatialGrid` with the given cell size.
+     *
+     * @param cellSize The size of each cell.
+     * @throws IllegalArgumentException if the cell size is not positive.
+     */
+    public SpatialGrid(float cellSize) {
+        if (!(cellSize > 0))
+            throw new IllegalArgumentException("Cell size must be positive");
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+        this.keys = new long[Long.SIZE];
+        this.heads = new int[Long.SIZE];
+        this.used = new boolean[Long.SIZE];
+        this.xs = new ResizingFloatArray(Long.SIZE);
+        this.ys = new ResizingFloatArray(Long.SIZE);
+        this.cellOf = new ResizingLongArray(Long.SIZE);
+        this.next = new ResizingIntArray(Long.SIZE);
+        this.previous = new ResizingIntArray(Long.SIZE);
+        this.present = new Bits(Long.SIZE);
+    }
+
+    /**
+     * Inserts an entity at a position, or moves it there if it is already within this grid.
+     *
+     * @param entityID The index of the entity.
+     * @param position The position of the entity.
+     */
+    public void update(int entityID, Point position) {
+        update(entityID, position.x(), position.y());
+    }
+
+    /**
+     * Inserts an entity at a position, or moves it there if it is already within this grid.
+     *
+     * @param entityID The index of the entity.
+     * @param x        The x coordinate of the entity.
+     * @param y        The y coordinate of the entity.
+     */
+    public void update(int entityID, float x, float y) {
+        long key = keyOf(cell(x), cell(y));
+        xs.set(entityID, x);
+        ys.set(entityID, y);
+        if (present.get(entityID)) {
+            if (cellOf.get(entityID) == key)
+                return;
+            unlink(entityID);
+        } else {
+            present.set(entityID);
+            size++;
+        }
+        link(entityID, key);
+    }
+
+    /**
+     * Removes an entity from this grid.
+     *
+     * @param entityID The index of the entity.
+     */
+    public void remove(int entityID) {
+        if (!present.get(entityID))
+            return;
+        unlink(entityID);
+        present.clear(entityID);
+        size--;
+    }
+
+    /**
+     * Checks if an entity is within this grid.
+     *
+     * @param entityID The index of the entity.
+     * @return `true` if the entity is within this grid, otherwise `false`.
+     */
+    public boolean contains(int entityID) {
+        return present.get(entityID);
+    }
+
+    /**
+     * Finds every entity within a radius of a position.
+     *
+     * @param center  The center of the radius.
+     * @param radius  The radius to search within.
+     * @param results The array to write the matching entity indices to.
+     * @return The number of matching entities, which may be larger than the array if it was too small to hold them.
+     */
+    public int queryRadius(Point center, float radius, int[] results) {
+        return queryRadius(center.x(), center.y(), radius, results);
+    }
+
+    /**
+     * Finds every entity within a radius of a position.
+     *
+     * @param x       The x coordinate of the center.
+     * @param y       The y coordinate of the center.
+     * @param radius  The radius to search within.
+     * @param results The array to write the matching entity indices to.
+     * @return The number of matching entities, which may be larger than the array if it was too small to hold them.
+     */
+    public int queryRadius(float x, float y, float radius, int[] results) {
+        float radiusSquared = radius * radius;
+        int count = 0;
+        for (int cx = cell(x - radius), maxX = cell(x + radius); cx <= maxX; cx++) {
+            for (int cy = cell(y - radius), maxY = cell(y + radius); cy <= maxY; cy++) {
+                int slot = slotOf(keyOf(cx, cy));
+                if (slot == NONE)
+                    continue;
+                for (int id = heads[slot]; id != NONE; id = next.get(id)) {
+                    float dx = xs.get(id) - x, dy = ys.get(id) - y;
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        if (count < results.length)
+                            results[count] = id;
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes every entity within a radius of a position to a consumer.
+     *
+     * @param x        The x coordinate of the center.
+     * @param y        The y coordinate of the center.
+     * @param radius   The radius to search within.
+     * @param consumer The consumer of the matching entity indices.
+     */
+    public void queryRadius(float x, float y, float radius, IntConsumer consumer) {
+        float radiusSquared = radius * radius;
+        for (int cx = cell(x - radius), maxX = cell(x + radius); cx <= maxX; cx++) {
+            for (int cy = cell(y - radius), maxY = cell(y + radius); cy <= maxY; cy++) {
+                int slot = slotOf(keyOf(cx, cy));
+                if (slot == NONE)
+                    continue;
+                for (int id = heads[slot]; id != NONE; id = next.get(id)) {
+                    float dx = xs.get(id) - x, dy = ys.get(id) - y;
+                    if (dx * dx + dy * dy <= radiusSquared)
+                        consumer.accept(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds every entity within an axis-aligned box.
+     *
+     * @param minX    The lowest x coordinate of the box.
+     * @param minY    The lowest y coordinate of the box.
+     * @param maxX    The highest x coordinate of the box.
+     * @param maxY    The highest y coordinate of the box.
+     * @param results The array to write the matching entity indices to.
+     * @return The number of matching entities, which may be larger than the array if it was too small to hold them.
+     */
+    public int queryBox(float minX, float minY, float maxX, float maxY, int[] results) {
+        int count = 0;
+        for (int cx = cell(minX), lastX = cell(maxX); cx <= lastX; cx++) {
+            for (int cy = cell(minY), lastY = cell(maxY); cy <= lastY; cy++) {
+                int slot = slotOf(keyOf(cx, cy));
+                if (slot == NONE)
+                    continue;
+                for (int id = heads[slot]; id != NONE; id = next.get(id)) {
+                    float ex = xs.get(id), ey = ys.get(id);
+                    if (ex >= minX && ex <= maxX && ey >= minY && ey <= maxY) {
+                        if (count < results.length)
+                            results[count] = id;
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes every entity within an axis-aligned box to a consumer.
+     *
+     * @param minX     The lowest x coordinate of the box.
+     * @param minY     The lowest y coordinate of the box.
+     * @param maxX     The highest x coordinate of the box.
+     * @param maxY     The highest y coordinate of the box.
+     * @param consumer The consumer of the matching entity indices.
+     */
+    public void queryBox(float minX, float minY, float maxX, float maxY, IntConsumer consumer) {
+        for (int cx = cell(minX), lastX = cell(maxX); cx <= lastX; cx++) {
+            for (int cy = cell(minY), lastY = cell(maxY); cy <= lastY; cy++) {
+                int slot = slotOf(keyOf(cx, cy));
+                if (slot == NONE)
+                    continue;
+                for (int id = heads[slot]; id != NONE; id = next.get(id)) {
+                    float ex = xs.get(id), ey = ys.get(id);
+                    if (ex >= minX && ex <= maxX && ey >= minY && ey <= maxY)
+                        consumer.accept(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every entity from this grid.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        cells = 0;
+        present.clearAll();
+        size = 0;
+    }
+
+    /**
+     * @return The number of entities within this grid.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The size of each cell.
+     */
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Links an entity in front of the entities of a cell, creating the cell if needed.
+     */
+    private void link(int entityID, long key) {
+        int slot = slotOf(key);
+        if (slot == NONE)
+            slot = insert(key);
+        int head = heads[slot];
+        next.set(entityID, head);
+        previous.set(entityID, NONE);
+        if (head != NONE)
+            previous.set(head, entityID);
+        heads[slot] = entityID;
+        cellOf.set(entityID, key);
+    }
+
+    /**
+     * Unlinks an entity from the entities of its cell, removing the cell once it is empty.
+     */
+    private void unlink(int entityID) {
+        int before = previous.get(entityID), after = next.get(entityID);
+        if (after != NONE)
+            previous.set(after, before);
+        if (before != NONE) {
+            next.set(before, after);
+        } else {
+            int slot = slotOf(cellOf.get(entityID));
+            if (after == NONE)
+                delete(slot);
+            else
+                heads[slot] = after;
+        }
+    }
+
+    /**
+     * Finds the slot of a cell within the cell table.
+     *
+     * @return The slot of the cell, or {@link #NONE} if the cell does not exist.
+     */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key)
+                return slot;
+        }
+        return NONE;
+    }
+
+    /**
+     * Inserts an empty cell into the cell table, doubling the table once it is half full.
+     *
+     * @return The slot of the cell.
+     */
+    private int insert(long key) {
+        if (cells + 1 > keys.length >> 1)
+            rehash(keys.length << 1);
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot])
+            slot = (slot + 1) & mask;
+        keys[slot] = key;
+        heads[slot] = NONE;
+        used[slot] = true;
+        cells++;
+        return slot;
+    }
+
+    /**
+     * Removes the cell at the given slot, shifting back the cells probed past it so no lookup is cut short.
+     */
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int i = (slot + 1) & mask; used[i]; i = (i + 1) & mask) {
+            // a cell may only fill the gap if the gap lies between its home slot and its current slot
+            if (((i - (hash(keys[i]) & mask)) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                heads[gap] = heads[i];
+                gap = i;
+            }
+        }
+        used[gap] = false;
+        cells--;
+    }
+
+    /**
+     * Moves every cell into a cell table of a new capacity.
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        heads = new int[capacity];
+        used = new boolean[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i])
+                continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (used[slot])
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            heads[slot] = oldHeads[i];
+            used[slot] = true;
+        }
+    }
+
+    /**
+     * @return The cell coordinate of a position coordinate.
+     */
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    /**
+     * @return The key of the cell at the given cell coordinates.
+     */
+    private static long keyOf(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return The spread hash of a cell key.
+     */
+    private static int hash(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
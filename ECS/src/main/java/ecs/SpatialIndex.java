@@ -0,0 +1,129 @@
+package ecs;
+
+import math.geometry.Point;
+
+import java.util.function.Function;
+
+/**
+ * The `SpatialIndex` class keeps a {@link SpatialGrid} in step with the position components of an {@link ECS}. It
+ * tracks the changes of the position component class through a {@link ChangeSet}, so each {@link #refresh()} only
+ * updates the entities whose position component was added, removed or marked as changed since the previous refresh.
+ * <p>
+ * Systems query the index through {@link #getGrid()}, usually after refreshing it once at the start of a tick.
+ * {@link Packed} position components are read from their {@link PackedComponentStore} into a reused instance, so
+ * the position function must not keep the component it is given. Any other position component must be retrievable
+ * through {@link ECS#getComponent(Entity, Class)}, so in {@link StorageMode#MAPPED} some system of the ECS has to
+ * depend on the position component class.
+ *
+ * @param <T> The type of the position component.
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class SpatialIndex<T extends Component> {
+
+    /**
+     * The ECS holding the indexed entities.
+     */
+    private final ECS<?> ecs;
+
+    /**
+     * The index of the position component.
+     */
+    private final int componentIndex;
+
+    /**
+     * Retrieves the position held by a position component.
+     */
+    private final Function<T, Point> position;
+
+    /**
+     * The store of the position component if it is packed, otherwise `null`.
+     */
+    private final PackedComponentStore<T> packed;
+
+    /**
+     * The instance packed position components are read into, or `null` if the position component is not packed.
+     */
+    private final T carrier;
+
+    /**
+     * The changes of the position component since the previous refresh.
+     */
+    private final ChangeSet changes;
+
+    /**
+     * The grid holding the positions of the entities.
+     */
+    private final SpatialGrid grid;
+
+    /**
+     * Constructs a new `SpatialIndex`, indexing every entity of the ECS that already has the position component.
+     *
+     * @param ecs      The ECS holding the indexed entities.
+     * @param type     The class of the position component.
+     * @param position Retrieves the position held by a position component.
+     * @param cellSize The size of each cell of the grid.
+     * @throws IllegalArgumentException if the position component is packed and has no no-argument constructor.
+     */
+    public SpatialIndex(ECS<?> ecs, Class<T> type, Function<T, Point> position, float cellSize) {
+        this.ecs = ecs;
+        this.componentIndex = Component.getComponentIndex(type);
+        this.position = position;
+        if (PackedComponentStore.isPacked(type)) {
+            this.packed = ecs.getPackedStore(type);
+            try {
+                this.carrier = type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Packed component " + type.getName()
+                        + " needs a no-argument constructor", e);
+            }
+        } else {
+            this.packed = null;
+            this.carrier = null;
+        }
+        this.changes = ecs.trackChanges(type);
+        this.grid = new SpatialGrid(cellSize);
+        for (int id = 0, length = ecs.capacity(); id < length; id++)
+            update(id);
+    }
+
+    /**
+     * Updates the grid with every position component that changed since the previous refresh.
+     *
+     * @return The number of entities updated.
+     */
+    public int refresh() {
+        int count = 0;
+        for (int id = changes.nextSetBit(0); id != -1; id = changes.nextSetBit(id + 1)) {
+            update(id);
+            count++;
+        }
+        changes.clear();
+        return count;
+    }
+
+    /**
+     * @return The grid holding the positions of the entities.
+     */
+    public SpatialGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Moves an entity to the position of its position component, or removes it from the grid if it no longer
+     * exists or has no position component.
+     */
+    @SuppressWarnings("unchecked")
+    private void update(int entityID) {
+        Entity entity = entityID < ecs.capacity() ? ecs.get(entityID) : null;
+        Component component = null;
+        if (entity != null && entity.getComponentFlags().get(componentIndex))
+            component = packed != null ? packed.read(entityID, carrier) : ecs.getComponent(entityID, componentIndex);
+        if (component == null) {
+            grid.remove(entityID);
+            return;
+        }
+        grid.update(entityID, position.apply((T) component));
+    }
+}
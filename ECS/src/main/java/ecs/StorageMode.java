@@ -0,0 +1,25 @@
+package ecs;
+
+/**
+ * The `StorageMode` enum selects how an {@link ECS} stores the components attached to its entities.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public enum StorageMode {
+
+    /**
+     * Every {@link EntitySystem} keeps its own {@link ComponentMapper} for each component class it depends on,
+     * and iterates the entity indices that were added to it.
+     */
+    MAPPED,
+
+    /**
+     * Entities sharing the same component signature are stored together in an {@link Archetype}, whose components
+     * are laid out in fixed size {@link ArchetypeChunk}s. Systems iterate the chunks of every matching archetype
+     * linearly and no per-system component mappers are populated, so a system reading component mappers must
+     * override {@link EntitySystem#process(ArchetypeChunk)}; otherwise it is rejected when added or processed.
+     */
+    ARCHETYPE
+}
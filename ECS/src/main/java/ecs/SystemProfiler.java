@@ -0,0 +1,315 @@
+package ecs;
+
+import utility.Text;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The `SystemProfiler` class records how long each system of an {@link ECS} takes to process, how many entities it
+ * processed and how many bytes it allocated, keeping the samples of the most recent ticks so percentiles can be read
+ * programmatically or printed as a periodic text report.
+ * <p>
+ * A profiler is only consulted while it is enabled through {@link ECS#enableProfiling(int)}, so a disabled profiler
+ * costs a single `null` check per system. Allocations are measured on the thread calling the system, so allocations
+ * made by the parallel iteration of a system on other threads are not counted.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class SystemProfiler {
+
+    /**
+     * The thread bean measuring allocated bytes, or `null` if the JVM cannot measure them.
+     */
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+
+    /**
+     * The systems being profiled, in their serial order.
+     */
+    private final EntitySystem[] systems;
+
+    /**
+     * The number of ticks each rolling window holds.
+     */
+    private final int window;
+
+    /**
+     * The wall time in nanoseconds of each sample, indexed by system and then by sample.
+     */
+    private final long[][] wallTimes;
+
+    /**
+     * The number of entities of each sample, indexed by system and then by sample.
+     */
+    private final int[][] entityCounts;
+
+    /**
+     * The bytes allocated by each sample, indexed by system and then by sample.
+     */
+    private final long[][] allocations;
+
+    /**
+     * The number of samples recorded for each system.
+     */
+    private final long[] samples;
+
+    /**
+     * The number of ticks profiled so far.
+     */
+    private long ticks;
+
+    /**
+     * The number of ticks between each report, or 0 if no report is printed.
+     */
+    private int reportInterval;
+
+    /**
+     * The output of the periodic report.
+     */
+    private Consumer<String> reportOutput;
+
+    /**
+     * Constructs a new `SystemProfiler` for the given systems.
+     *
+     * @param systems The systems to profile.
+     * @param window  The number of ticks each rolling window holds.
+     */
+    SystemProfiler(EntitySystem[] systems, int window) {
+        this.systems = systems;
+        this.window = Math.max(1, window);
+        this.wallTimes = new long[systems.length][this.window];
+        this.entityCounts = new int[systems.length][this.window];
+        this.allocations = new long[systems.length][this.window];
+        this.samples = new long[systems.length];
+    }
+
+    /**
+     * Processes a system, recording a sample of it.
+     *
+     * @param index The index of the system.
+     * @param mode  The storage mode of the ECS owning the system.
+     */
+    void process(int index, StorageMode mode) {
+        EntitySystem system = systems[index];
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            system.process(mode);
+        } finally {
+            record(index, System.nanoTime() - start, entityCount(system, mode), allocatedBytes() - allocated);
+        }
+    }
+
+    /**
+     * Processes part of the entities of a system, recording a sample of it.
+     *
+     * @param index    The index of the system.
+     * @param mode     The storage mode of the ECS owning the system.
+     * @param position The position to resume from.
+     * @param deadline The {@link System#nanoTime()} after which no more entities are started.
+     * @return The position to resume from in the next slice, or -1 if the pass is complete.
+     * @see EntitySystem#processSlice(StorageMode, int, long)
+     */
+    int processSlice(int index, StorageMode mode, int position, long deadline) {
+        EntitySystem system = systems[index];
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            return system.processSlice(mode, position, deadline);
+        } finally {
+            record(index, System.nanoTime() - start, system.getSliceEntityCount(), allocatedBytes() - allocated);
+        }
+    }
+
+    /**
+     * Records a sample of a system.
+     *
+     * @param index     The index of the system.
+     * @param wallTime  The wall time in nanoseconds the system took.
+     * @param entities  The number of entities the system processed.
+     * @param allocated The number of bytes the system allocated.
+     */
+    void record(int index, long wallTime, int entities, long allocated) {
+        int slot = (int) (samples[index] % window);
+        wallTimes[index][slot] = wallTime;
+        entityCounts[index][slot] = entities;
+        allocations[index][slot] = allocated;
+        samples[index]++;
+    }
+
+    /**
+     * Finishes a tick, printing the report if it is due.
+     */
+    void endTick() {
+        ticks++;
+        if (reportInterval > 0 && ticks % reportInterval == 0)
+            reportOutput.accept(report());
+    }
+
+    /**
+     * Prints a report every given number of ticks.
+     *
+     * @param interval The number of ticks between each report, or 0 to stop printing reports.
+     * @param output   The output of the report, such as `System.out::println`.
+     */
+    public void setReportInterval(int interval, Consumer<String> output) {
+        this.reportOutput = output;
+        this.reportInterval = Math.max(0, interval);
+    }
+
+    /**
+     * Retrieves a percentile of the wall time of a system over the rolling window.
+     *
+     * @param system     The system.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The wall time in nanoseconds, or 0 if no sample has been recorded.
+     */
+    public long getWallTime(EntitySystem system, double percentile) {
+        int index = indexOf(system);
+        return percentile(wallTimes[index], count(index), percentile);
+    }
+
+    /**
+     * Retrieves a percentile of the bytes allocated per tick by a system over the rolling window.
+     *
+     * @param system     The system.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The number of bytes, or -1 if the JVM cannot measure allocations.
+     */
+    public long getAllocatedBytes(EntitySystem system, double percentile) {
+        if (ALLOCATIONS == null)
+            return -1;
+        int index = indexOf(system);
+        return percentile(allocations[index], count(index), percentile);
+    }
+
+    /**
+     * Retrieves the number of entities a system processed in its most recent sample.
+     *
+     * @param system The system.
+     * @return The number of entities, or 0 if no sample has been recorded.
+     */
+    public int getEntityCount(EntitySystem system) {
+        int index = indexOf(system);
+        return samples[index] == 0 ? 0 : entityCounts[index][(int) ((samples[index] - 1) % window)];
+    }
+
+    /**
+     * Retrieves the mean wall time of a system over the rolling window.
+     *
+     * @param system The system.
+     * @return The mean wall time in nanoseconds, or 0 if no sample has been recorded.
+     */
+    public double getMeanWallTime(EntitySystem system) {
+        int index = indexOf(system);
+        int count = count(index);
+        long total = 0;
+        for (int i = 0; i < count; i++)
+            total += wallTimes[index][i];
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @return The number of ticks profiled so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Creates a text report of every system, holding the median, 95th and 99th percentile of wall time, the latest
+     * entity count and the median allocation per tick.
+     *
+     * @return The report.
+     */
+    public String report() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(new Text("System").padToLength(32))
+                .append(new Text("p50 us").padToLength(12))
+                .append(new Text("p95 us").padToLength(12))
+                .append(new Text("p99 us").padToLength(12))
+                .append(new Text("Entities").padToLength(12))
+                .append("Alloc/tick")
+                .append(System.lineSeparator());
+        for (EntitySystem system : systems) {
+            long allocated = getAllocatedBytes(system, 50);
+            builder.append(new Text(system.getClass().getSimpleName()).abbreviate(31).padToLength(32))
+                    .append(micros(getWallTime(system, 50)))
+                    .append(micros(getWallTime(system, 95)))
+                    .append(micros(getWallTime(system, 99)))
+                    .append(new Text(getEntityCount(system)).padToLength(12))
+                    .append(allocated < 0 ? "n/a" : new Text(allocated).formatStorageUnits())
+                    .append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return The number of samples within the rolling window of a system.
+     */
+    private int count(int index) {
+        return (int) Math.min(samples[index], window);
+    }
+
+    /**
+     * Finds the position of a system within the profiled systems.
+     */
+    private int indexOf(EntitySystem system) {
+        for (int i = 0; i < systems.length; i++) {
+            if (systems[i] == system)
+                return i;
+        }
+        throw new IllegalArgumentException("System is not profiled");
+    }
+
+    /**
+     * @return The nearest-rank percentile of the first values of an array.
+     */
+    private static long percentile(long[] values, int count, double percentile) {
+        if (count == 0)
+            return 0;
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    /**
+     * @return A wall time formatted as a padded column of microseconds.
+     */
+    private static Text micros(long nanos) {
+        return new Text(String.format("%.1f", nanos / (double) TimeUnit.MICROSECONDS.toNanos(1))).padToLength(12);
+    }
+
+    /**
+     * @return The number of entities a system processes in the given storage mode.
+     */
+    private static int entityCount(EntitySystem system, StorageMode mode) {
+        return mode == StorageMode.ARCHETYPE ? system.archetypeEntityCount() : system.size();
+    }
+
+    /**
+     * @return The number of bytes allocated by the current thread, or 0 if the JVM cannot measure them.
+     */
+    private static long allocatedBytes() {
+        return ALLOCATIONS == null ? 0 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @return The thread bean measuring allocated bytes, or `null` if the JVM cannot measure them.
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            if (!threads.isThreadAllocatedMemoryEnabled())
+                threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,203 @@
+package ecs;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The `SystemScheduler` class processes the systems of an {@link ECS} in parallel on a {@link ForkJoinPool}.
+ * A dependency graph is built from the component classes each system declares to read and write: a system depends on
+ * every earlier system it conflicts with, so conflicting systems always run in the order they were given in.
+ * Systems without any dependency left are processed at the same time. Each system records its structural changes into
+ * a {@link CommandBuffer} of its own, which the ECS flushes in serial system order, so the results match processing
+ * the systems serially.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class SystemScheduler {
+
+    /**
+     * The pool the systems are processed on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The storage mode of the ECS owning the systems.
+     */
+    private final StorageMode mode;
+
+    /**
+     * The systems to process, in their serial order.
+     */
+    private final EntitySystem[] systems;
+
+    /**
+     * The indices of the systems depending on each system.
+     */
+    private final int[][] dependents;
+
+    /**
+     * The number of systems each system depends on.
+     */
+    private final int[] dependencies;
+
+    /**
+     * The indices of the systems without any dependency.
+     */
+    private final int[] roots;
+
+    /**
+     * The number of dependencies left for each system during the current tick.
+     */
+    private final AtomicIntegerArray remaining;
+
+    /**
+     * The time in nanoseconds each system took to process during the last tick.
+     */
+    private final long[] timings;
+
+    /**
+     * The first error thrown by a system during the current tick.
+     */
+    private final AtomicReference<Throwable> error;
+
+    /**
+     * Counts down every system that finished processing during the current tick.
+     */
+    private CountDownLatch latch;
+
+    /**
+     * The profiler recording every system, or `null` if profiling is disabled.
+     */
+    private volatile SystemProfiler profiler;
+
+    /**
+     * Constructs a new `SystemScheduler` and builds the dependency graph of the given systems.
+     *
+     * @param pool    The pool the systems are processed on.
+     * @param mode    The storage mode of the ECS owning the systems.
+     * @param systems The systems to process, in their serial order.
+     */
+    public SystemScheduler(ForkJoinPool pool, StorageMode mode, EntitySystem... systems) {
+        this.pool = pool;
+        this.mode = mode;
+        this.systems = systems;
+        this.dependents = new int[systems.length][];
+        this.dependencies = new int[systems.length];
+        this.remaining = new AtomicIntegerArray(systems.length);
+        this.timings = new long[systems.length];
+        this.error = new AtomicReference<>();
+
+        ArrayList<Integer> rootList = new ArrayList<>();
+        for (int i = 0; i < systems.length; i++) {
+            ArrayList<Integer> after = new ArrayList<>();
+            for (int j = i + 1; j < systems.length; j++) {
+                if (systems[i].conflictsWith(systems[j])) {
+                    after.add(j);
+                    dependencies[j]++;
+                }
+            }
+            dependents[i] = after.stream().mapToInt(Integer::intValue).toArray();
+        }
+        for (int i = 0; i < systems.length; i++) {
+            if (dependencies[i] == 0)
+                rootList.add(i);
+        }
+        this.roots = rootList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Processes every system once, blocking until all of them have finished.
+     *
+     * @throws RuntimeException if any system threw an exception while processing.
+     */
+    public void process() {
+        if (systems.length == 0)
+            return;
+
+        for (int i = 0; i < systems.length; i++)
+            remaining.set(i, dependencies[i]);
+        latch = new CountDownLatch(systems.length);
+        error.set(null);
+
+        for (int root : roots)
+            pool.execute(() -> run(root));
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while processing systems", e);
+        }
+
+        Throwable thrown = error.get();
+        if (thrown != null)
+            throw new RuntimeException("A system failed while processing", thrown);
+    }
+
+    /**
+     * Processes a single system and releases every system depending on it.
+     *
+     * @param index The index of the system.
+     */
+    private void run(int index) {
+        long start = System.nanoTime();
+        try {
+            SystemProfiler profiler = this.profiler;
+            if (error.get() == null && profiler != null)
+                profiler.process(index, mode);
+            else if (error.get() == null)
+                systems[index].process(mode);
+        } catch (Throwable t) {
+            error.compareAndSet(null, t);
+        } finally {
+            timings[index] = System.nanoTime() - start;
+            for (int dependent : dependents[index]) {
+                if (remaining.decrementAndGet(dependent) == 0)
+                    pool.execute(() -> run(dependent));
+            }
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Sets the profiler recording every system.
+     *
+     * @param profiler The profiler, or `null` to disable profiling.
+     */
+    void setProfiler(SystemProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Retrieves the time the system at the given index took to process during the last tick.
+     *
+     * @param index The index of the system.
+     * @return The time in nanoseconds.
+     */
+    public long getTiming(int index) {
+        return timings[index];
+    }
+
+    /**
+     * @return The time in nanoseconds each system took to process during the last tick, ordered the same as the
+     * systems of the ECS.
+     */
+    public long[] getTimings() {
+        return timings.clone();
+    }
+
+    /**
+     * Retrieves the indices of the systems that must wait for the system at the given index.
+     *
+     * @param index The index of the system.
+     * @return The indices of the dependent systems.
+     */
+    public int[] getDependents(int index) {
+        return dependents[index].clone();
+    }
+}
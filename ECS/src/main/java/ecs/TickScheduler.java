@@ -0,0 +1,263 @@
+package ecs;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The `TickScheduler` class processes the systems of an {@link ECS} at a fixed timestep, independent of how often
+ * {@link #update(long)} is called. Each system can be given an interval so it only runs every few ticks, and a time
+ * budget so its entities are spread over as many ticks as needed instead of processed all at once.
+ * <p>
+ * When updates fall behind, missed ticks are caught up, but never more than the catch-up limit per update. Any time
+ * beyond the limit is dropped, so a long stall does not cause a burst of ticks that stalls again.
+ * <p>
+ * Systems are processed in the order they were given to the ECS, on the calling thread, with structural changes
+ * applied once every due system has finished. Systems with parallel iteration enabled still process their own
+ * entities in parallel unless they are budgeted.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class TickScheduler {
+
+    /**
+     * The default number of ticks that may be caught up within a single update.
+     */
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * The ECS whose systems are processed.
+     */
+    private final ECS<?> ecs;
+
+    /**
+     * The systems to process, in their serial order.
+     */
+    private final EntitySystem[] systems;
+
+    /**
+     * The number of ticks between each pass of each system.
+     */
+    private final int[] intervals;
+
+    /**
+     * The tick within each interval on which each system starts a pass.
+     */
+    private final int[] offsets;
+
+    /**
+     * The time in nanoseconds each system may spend per tick, or 0 if a system processes all of its entities at once.
+     */
+    private final long[] budgets;
+
+    /**
+     * The position each budgeted system resumes its pass from, or -1 if it is not within a pass.
+     */
+    private final int[] positions;
+
+    /**
+     * The duration of a single tick in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The maximum number of ticks processed within a single update.
+     */
+    private int maxCatchUpTicks;
+
+    /**
+     * The time in nanoseconds that has passed but not yet been processed as a tick.
+     */
+    private long accumulator;
+
+    /**
+     * The number of ticks processed so far.
+     */
+    private long tick;
+
+    /**
+     * The number of ticks dropped because of the catch-up limit.
+     */
+    private long dropped;
+
+    /**
+     * Constructs a new `TickScheduler` processing the systems of an ECS at the given rate.
+     *
+     * @param ecs            The ECS whose systems are processed.
+     * @param ticksPerSecond The number of ticks per second.
+     * @throws IllegalArgumentException if the tick rate is not positive.
+     */
+    public TickScheduler(ECS<?> ecs, int ticksPerSecond) {
+        if (ticksPerSecond <= 0)
+            throw new IllegalArgumentException("Tick rate must be positive");
+        this.ecs = ecs;
+        this.systems = ecs.getSystems();
+        this.intervals = new int[systems.length];
+        this.offsets = new int[systems.length];
+        this.budgets = new long[systems.length];
+        this.positions = new int[systems.length];
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+        this.maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+        Arrays.fill(intervals, 1);
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Sets the number of ticks between each pass of a system.
+     *
+     * @param system   The system to set the interval of.
+     * @param interval The number of ticks between each pass, 1 to process the system every tick.
+     * @param offset   The tick within the interval on which passes start, used to keep systems with the same interval
+     *                 from running on the same tick.
+     * @return This scheduler, for chaining.
+     * @throws IllegalArgumentException if the interval is not positive, or the system does not belong to the ECS.
+     */
+    public TickScheduler setInterval(EntitySystem system, int interval, int offset) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("Interval must be positive");
+        int i = indexOf(system);
+        intervals[i] = interval;
+        offsets[i] = Math.floorMod(offset, interval);
+        return this;
+    }
+
+    /**
+     * Sets the number of ticks between each pass of a system, starting on the first tick of each interval.
+     *
+     * @param system   The system to set the interval of.
+     * @param interval The number of ticks between each pass, 1 to process the system every tick.
+     * @return This scheduler, for chaining.
+     */
+    public TickScheduler setInterval(EntitySystem system, int interval) {
+        return setInterval(system, interval, 0);
+    }
+
+    /**
+     * Sets the time a system may spend per tick. A pass of the system that does not finish within the budget is
+     * continued on the next tick, and the next pass does not start before the current one has finished.
+     *
+     * @param system The system to set the budget of.
+     * @param budget The time the system may spend per tick, or 0 to process all of its entities at once.
+     * @param unit   The unit of the budget.
+     * @return This scheduler, for chaining.
+     */
+    public TickScheduler setBudget(EntitySystem system, long budget, TimeUnit unit) {
+        int i = indexOf(system);
+        budgets[i] = unit.toNanos(Math.max(0, budget));
+        if (budgets[i] == 0)
+            positions[i] = -1;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of ticks processed within a single update.
+     *
+     * @param maxCatchUpTicks The maximum number of ticks, at least 1.
+     * @return This scheduler, for chaining.
+     */
+    public TickScheduler setMaxCatchUpTicks(int maxCatchUpTicks) {
+        this.maxCatchUpTicks = Math.max(1, maxCatchUpTicks);
+        return this;
+    }
+
+    /**
+     * Advances the time of this scheduler, processing every tick that has become due.
+     *
+     * @param elapsedNanos The time in nanoseconds since the previous update.
+     * @return The number of ticks processed.
+     */
+    public int update(long elapsedNanos) {
+        accumulator += elapsedNanos;
+        int ticks = 0;
+        while (accumulator >= tickNanos && ticks < maxCatchUpTicks) {
+            tick();
+            accumulator -= tickNanos;
+            ticks++;
+        }
+        if (accumulator >= tickNanos) {
+            dropped += accumulator / tickNanos;
+            accumulator %= tickNanos;
+        }
+        return ticks;
+    }
+
+    /**
+     * Processes a single tick, running every system that is due or within a budgeted pass.
+     */
+    public void tick() {
+        ecs.process(() -> {
+            StorageMode mode = ecs.getStorageMode();
+            SystemProfiler profiler = ecs.getProfiler();
+            for (int i = 0; i < systems.length; i++) {
+                boolean due = tick % intervals[i] == offsets[i];
+                if (budgets[i] == 0) {
+                    if (due && profiler != null)
+                        profiler.process(i, mode);
+                    else if (due)
+                        systems[i].process(mode);
+                    continue;
+                }
+                if (positions[i] == -1) {
+                    if (!due)
+                        continue;
+                    positions[i] = 0;
+                }
+                long deadline = System.nanoTime() + budgets[i];
+                positions[i] = profiler != null
+                        ? profiler.processSlice(i, mode, positions[i], deadline)
+                        : systems[i].processSlice(mode, positions[i], deadline);
+            }
+        });
+        tick++;
+    }
+
+    /**
+     * @return The fraction of a tick that has passed since the last processed tick, used to interpolate rendering.
+     */
+    public double getAlpha() {
+        return (double) accumulator / tickNanos;
+    }
+
+    /**
+     * @return The number of ticks processed so far.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return The number of ticks dropped because of the catch-up limit.
+     */
+    public long getDroppedTicks() {
+        return dropped;
+    }
+
+    /**
+     * @return The duration of a single tick in nanoseconds.
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Checks if a system is in the middle of a budgeted pass that will continue on the next tick.
+     *
+     * @param system The system to check.
+     * @return `true` if the pass of the system is not complete, otherwise `false`.
+     */
+    public boolean isInPass(EntitySystem system) {
+        return positions[indexOf(system)] != -1;
+    }
+
+    /**
+     * Finds the position of a system within the systems of the ECS.
+     */
+    private int indexOf(EntitySystem system) {
+        for (int i = 0; i < systems.length; i++) {
+            if (systems[i] == system)
+                return i;
+        }
+        throw new IllegalArgumentException("System does not belong to the ECS");
+    }
+}
@@ -0,0 +1,394 @@
+package ecs;
+
+import buffer.DynamicByteBuffer;
+import collections.array.ResizingArray;
+import collections.array.ResizingLongArray;
+import collections.bits.Bits;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The `WorldSnapshot` class writes every live entity of an {@link ECS} and its components to a compact binary format,
+ * and restores an ECS from that format. It is meant for checkpoints used in crash recovery and replays.
+ * <p>
+ * Every component class written must have a {@link ComponentCodec} registered. A snapshot starts with a table of the
+ * component class names it contains along with their component indices at the time of writing, so it can be read
+ * back even if component indices are assigned differently.
+ * Entity indices and generations are kept as they were, so {@link Entity#getHandle() handles} survive a restore.
+ * Indices are written as the difference from the previous index.
+ * <p>
+ * After a full snapshot has been written with {@link #write(ECS)}, {@link #writeDelta(ECS)} writes only the
+ * entities that were created, changed or removed since the previous snapshot. An entity counts as changed if its
+ * encoded bytes differ from those of the previous snapshot. A 64-bit hash of the bytes is compared first, so the bytes
+ * themselves are only compared for entities that are likely unchanged.
+ *
+ * @param <E> The type of entity within the ECS.
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class WorldSnapshot<E extends Entity> {
+
+    /**
+     * The value every snapshot starts with.
+     */
+    private static final int MAGIC = 0x45435332;
+
+    /**
+     * The kind of snapshot holding every live entity.
+     */
+    private static final byte FULL = 0;
+
+    /**
+     * The kind of snapshot holding only the changes since the previous snapshot.
+     */
+    private static final byte DELTA = 1;
+
+    /**
+     * The codecs of each component, indexed by component index.
+     */
+    private ComponentCodec[] codecs;
+
+    /**
+     * The carrier used to read each packed component out of its store, indexed by component index.
+     */
+    private Component[] carriers;
+
+    /**
+     * The hash of every entity written by the previous snapshot, indexed by entity index.
+     */
+    private final ResizingLongArray hashes;
+
+    /**
+     * The encoded bytes of every entity written by the previous snapshot, indexed by entity index.
+     */
+    private final ResizingArray<byte[]> records;
+
+    /**
+     * The entity indices written by the previous snapshot.
+     */
+    private final Bits written;
+
+    /**
+     * The buffer every entity record is encoded into before it is hashed.
+     */
+    private final DynamicByteBuffer record;
+
+    /**
+     * Constructs a new `WorldSnapshot` without any codecs.
+     */
+    public WorldSnapshot() {
+        this.codecs = new ComponentCodec[Long.SIZE];
+        this.carriers = new Component[Long.SIZE];
+        this.hashes = new ResizingLongArray(Short.SIZE);
+        this.records = new ResizingArray<>(byte[].class, Short.SIZE);
+        this.written = new Bits(Long.SIZE);
+        this.record = new DynamicByteBuffer(Byte.MAX_VALUE + 1);
+    }
+
+    /**
+     * Registers the codec used to write and read a component class.
+     *
+     * @param type  The component class.
+     * @param codec The codec of the component class.
+     * @param <T>   The type of the component.
+     * @return This snapshot, for chaining.
+     */
+    public <T extends Component> WorldSnapshot<E> register(Class<T> type, ComponentCodec<T> codec) {
+        int index = Component.getComponentIndex(type);
+        if (index >= codecs.length) {
+            codecs = Arrays.copyOf(codecs, Math.max(index + 1, codecs.length * 2));
+            carriers = Arrays.copyOf(carriers, codecs.length);
+        }
+        codecs[index] = codec;
+        return this;
+    }
+
+    /**
+     * Writes every live entity of the given ECS, and makes this snapshot the base of the next delta.
+     *
+     * @param ecs The ECS to write.
+     * @return The buffer holding the snapshot.
+     */
+    public DynamicByteBuffer write(ECS<E> ecs) {
+        DynamicByteBuffer body = new DynamicByteBuffer(Short.MAX_VALUE + 1);
+        ArrayList<Class<? extends Component>> types = new ArrayList<>();
+        boolean[] listed = new boolean[ComponentRegistry.size()];
+
+        written.clearAll();
+        int count = 0, previous = -1;
+        for (int id = 0, length = ecs.capacity(); id < length; id++) {
+            E entity = ecs.get(id);
+            if (entity == null)
+                continue;
+            long hash = encode(ecs, entity, types, listed);
+            writeVarInt(body, id - previous - 1);
+            body.writeBytes(record.toArray(), 0, record.getWritePosition());
+            remember(id, hash);
+            previous = id;
+            count++;
+        }
+
+        DynamicByteBuffer buffer = header(FULL, types, body.getWritePosition());
+        writeVarInt(buffer, count);
+        buffer.writeBytes(body.toArray(), 0, body.getWritePosition());
+        return buffer;
+    }
+
+    /**
+     * Writes the entities of the given ECS that were created, changed or removed since the previous snapshot,
+     * and makes this snapshot the base of the next delta.
+     *
+     * @param ecs The ECS to write.
+     * @return The buffer holding the delta snapshot.
+     */
+    public DynamicByteBuffer writeDelta(ECS<E> ecs) {
+        DynamicByteBuffer body = new DynamicByteBuffer(Short.MAX_VALUE + 1);
+        DynamicByteBuffer removed = new DynamicByteBuffer(Byte.MAX_VALUE + 1);
+        ArrayList<Class<? extends Component>> types = new ArrayList<>();
+        boolean[] listed = new boolean[ComponentRegistry.size()];
+
+        int removedCount = 0, previousRemoved = -1;
+        for (int id = written.nextSetBit(0); id != -1; id = written.nextSetBit(id + 1)) {
+            if (id < ecs.capacity() && ecs.get(id) != null)
+                continue;
+            writeVarInt(removed, id - previousRemoved - 1);
+            written.clear(id);
+            records.set(id, null);
+            previousRemoved = id;
+            removedCount++;
+        }
+
+        int changedCount = 0, previous = -1;
+        for (int id = 0, length = ecs.capacity(); id < length; id++) {
+            E entity = ecs.get(id);
+            if (entity == null)
+                continue;
+            long hash = encode(ecs, entity, types, listed);
+            if (written.get(id) && hashes.get(id) == hash && Arrays.equals(records.get(id), 0, records.get(id).length,
+                    record.toArray(), 0, record.getWritePosition()))
+                continue;
+            writeVarInt(body, id - previous - 1);
+            body.writeBytes(record.toArray(), 0, record.getWritePosition());
+            remember(id, hash);
+            previous = id;
+            changedCount++;
+        }
+
+        DynamicByteBuffer buffer = header(DELTA, types, removed.getWritePosition() + body.getWritePosition());
+        writeVarInt(buffer, removedCount);
+        buffer.writeBytes(removed.toArray(), 0, removed.getWritePosition());
+        writeVarInt(buffer, changedCount);
+        buffer.writeBytes(body.toArray(), 0, body.getWritePosition());
+        return buffer;
+    }
+
+    /**
+     * Restores a snapshot into the given ECS. A full snapshot replaces every entity of the ECS, while a delta snapshot
+     * is applied on top of the state restored from the snapshots before it. Entities a delta changed are updated in
+     * place, so handles to them stay valid, unless the index was reused by a newer generation since. The ECS must not
+     * be processing.
+     *
+     * @param ecs    The ECS to restore into.
+     * @param buffer The buffer holding the snapshot.
+     * @throws IllegalArgumentException if the buffer does not hold a snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    public void read(ECS<E> ecs, DynamicByteBuffer buffer) {
+        if (buffer.readInt() != MAGIC)
+            throw new IllegalArgumentException("Buffer does not hold a snapshot");
+        byte kind = buffer.readByte();
+
+        ComponentCodec[] local = new ComponentCodec[Long.SIZE];
+        for (int i = 0, count = readVarInt(buffer); i < count; i++) {
+            int recorded = readVarInt(buffer);
+            String name = buffer.readString();
+            if (recorded >= local.length)
+                local = Arrays.copyOf(local, Math.max(recorded + 1, local.length * 2));
+            try {
+                Class<? extends Component> type = Class.forName(name).asSubclass(Component.class);
+                int index = Component.getComponentIndex(type);
+                local[recorded] = index < codecs.length ? codecs[index] : null;
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unknown component class " + name, e);
+            }
+            if (local[recorded] == null)
+                throw new IllegalStateException("No codec registered for " + name);
+        }
+
+        if (kind == FULL) {
+            for (int id = 0, length = ecs.capacity(); id < length; id++) {
+                E entity = ecs.get(id);
+                if (entity != null)
+                    ecs.remove(entity);
+            }
+        } else {
+            int id = -1;
+            for (int i = 0, count = readVarInt(buffer); i < count; i++) {
+                id += readVarInt(buffer) + 1;
+                E entity = ecs.get(id);
+                if (entity != null)
+                    ecs.remove(entity);
+            }
+        }
+
+        int id = -1;
+        Component[] decoded = new Component[Long.SIZE];
+        for (int i = 0, count = readVarInt(buffer); i < count; i++) {
+            id += readVarInt(buffer) + 1;
+            int generation = readVarInt(buffer);
+            int components = readVarInt(buffer);
+            if (components > decoded.length)
+                decoded = new Component[components];
+            for (int c = 0; c < components; c++)
+                decoded[c] = (Component) local[readVarInt(buffer)].read(buffer);
+
+            E entity = id < ecs.capacity() ? ecs.get(id) : null;
+            if (entity != null && entity.getGeneration() != generation) {
+                ecs.remove(entity);
+                entity = null;
+            }
+            if (entity == null) {
+                entity = ecs.createAt(id, generation);
+                for (int c = 0; c < components; c++)
+                    ecs.addComponent(entity, decoded[c]);
+            } else {
+                update(ecs, entity, decoded, components);
+            }
+            Arrays.fill(decoded, 0, components, null);
+        }
+    }
+
+    /**
+     * Brings the components of a surviving entity in line with a decoded record, keeping its index and generation so
+     * its {@link EntityHandle handles} stay valid. Components missing from the record are removed, and every decoded
+     * component is added, replacing the current component of its class.
+     */
+    private void update(ECS<E> ecs, E entity, Component[] decoded, int count) {
+        Bits kept = new Bits(Component.SIGNATURE_SIZE);
+        for (int c = 0; c < count; c++)
+            kept.set(decoded[c].getIndex());
+
+        Bits flags = entity.getComponentFlags();
+        ArrayList<Component> removed = new ArrayList<>();
+        for (int c = flags.nextSetBit(0); c != -1; c = flags.nextSetBit(c + 1)) {
+            if (!kept.get(c))
+                removed.add(componentOf(ecs, entity, c, ComponentRegistry.typeOf(c)));
+        }
+        for (Component component : removed)
+            ecs.removeComponent(entity, component);
+        for (int c = 0; c < count; c++)
+            ecs.addComponent(entity, decoded[c]);
+    }
+
+    /**
+     * Keeps the record just written for an entity, to compare against when writing the next delta.
+     */
+    private void remember(int id, long hash) {
+        hashes.set(id, hash);
+        records.set(id, Arrays.copyOf(record.toArray(), record.getWritePosition()));
+        written.set(id);
+    }
+
+    /**
+     * Encodes the generation and components of an entity into the record buffer.
+     *
+     * @return The hash of the encoded bytes.
+     */
+    @SuppressWarnings("unchecked")
+    private long encode(ECS<E> ecs, E entity, ArrayList<Class<? extends Component>> types, boolean[] listed) {
+        record.clear();
+        writeVarInt(record, entity.getGeneration());
+        Bits flags = entity.getComponentFlags();
+        int count = 0;
+        for (int c = flags.nextSetBit(0); c != -1; c = flags.nextSetBit(c + 1))
+            count++;
+        writeVarInt(record, count);
+
+        for (int c = flags.nextSetBit(0); c != -1; c = flags.nextSetBit(c + 1)) {
+            ComponentCodec codec = c < codecs.length ? codecs[c] : null;
+            Class<? extends Component> type = ComponentRegistry.typeOf(c);
+            if (codec == null)
+                throw new IllegalStateException("No codec registered for " + type.getName());
+
+            if (!listed[c]) {
+                types.add(type);
+                listed[c] = true;
+            }
+            // the component index rather than a position within the table, so records compare equal across snapshots
+            writeVarInt(record, c);
+            codec.write(componentOf(ecs, entity, c, type), record);
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        byte[] data = record.toArray();
+        for (int i = 0, length = record.getWritePosition(); i < length; i++)
+            hash = (hash ^ data[i]) * 0x100000001b3L;
+        return hash;
+    }
+
+    /**
+     * Retrieves a component of an entity, reading packed components into a reused carrier.
+     */
+    @SuppressWarnings("unchecked")
+    private Component componentOf(ECS<E> ecs, E entity, int componentIndex, Class<? extends Component> type) {
+        if (PackedComponentStore.isPacked(type)) {
+            Component carrier = carriers[componentIndex];
+            if (carrier == null) {
+                try {
+                    carrier = carriers[componentIndex] = type.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Packed component " + type.getName()
+                            + " needs a no-argument constructor", e);
+                }
+            }
+            return ((PackedComponentStore<Component>) ecs.getPackedStore(type)).read(entity.getIndex(), carrier);
+        }
+        Component component = ecs.getComponent(entity.getIndex(), componentIndex);
+        if (component == null)
+            throw new IllegalStateException("Component " + type.getName() + " of entity " + entity.getIndex()
+                    + " is not retained by any system");
+        return component;
+    }
+
+    /**
+     * Creates a buffer holding the header of a snapshot.
+     */
+    private static DynamicByteBuffer header(byte kind, ArrayList<Class<? extends Component>> types, int bodySize) {
+        DynamicByteBuffer buffer = new DynamicByteBuffer(bodySize + Byte.MAX_VALUE + 1);
+        buffer.writeInt(MAGIC);
+        buffer.writeByte(kind);
+        writeVarInt(buffer, types.size());
+        for (Class<? extends Component> type : types) {
+            writeVarInt(buffer, Component.getComponentIndex(type));
+            buffer.writeString(type.getName());
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes an unsigned integer using 7 bits per byte, so small values take a single byte.
+     */
+    private static void writeVarInt(DynamicByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.writeByte(value);
+    }
+
+    /**
+     * Reads an unsigned integer written by {@link #writeVarInt(DynamicByteBuffer, int)}.
+     */
+    private static int readVarInt(DynamicByteBuffer buffer) {
+        int value = 0, shift = 0;
+        byte b;
+        do {
+            b = buffer.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,296 @@
+package event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link EventBus} whose {@link #publish(Event)} only enqueues the event, leaving dispatching to its own dispatcher
+ * threads. Publishing threads such as network threads therefore never run listeners and never contend on a lock;
+ * they only claim a slot of a lock-free {@link EventQueue}, and the {@link BackPressure} strategy decides what happens
+ * when the queue is full.
+ * <p>
+ * Dispatcher threads drain the queue in batches. With a single dispatcher, events are dispatched in the order they
+ * were published; with several dispatchers, events published close together may be dispatched at the same time and
+ * in any order, so listeners must be thread safe.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class AsyncEventBus extends EventBus implements AutoCloseable {
+
+    /**
+     * The default number of events a dispatcher drains at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    /**
+     * The longest time in nanoseconds an idle dispatcher or a blocked publisher parks before checking again.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The queue of published events waiting to be dispatched.
+     */
+    private final EventQueue queue;
+
+    /**
+     * The strategy used when an event is published while the queue is full.
+     */
+    private final BackPressure backPressure;
+
+    /**
+     * The threads dispatching events.
+     */
+    private final DispatcherThread[] dispatchers;
+
+    /**
+     * The number of events each dispatcher drains at once.
+     */
+    private final int batchSize;
+
+    /**
+     * The number of events accepted into the queue.
+     */
+    private final LongAdder published = new LongAdder();
+
+    /**
+     * The number of events dispatched to their listeners.
+     */
+    private final LongAdder dispatched = new LongAdder();
+
+    /**
+     * The number of events dropped because the queue was full.
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * The number of batches drained by the dispatchers.
+     */
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * The time this bus was started at, in {@link System#nanoTime()}.
+     */
+    private final long startNanos;
+
+    /**
+     * Whether this bus still accepts events.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new `AsyncEventBus` with a single dispatcher thread.
+     *
+     * @param capacity     The minimum number of events the queue can hold.
+     * @param backPressure The strategy used when an event is published while the queue is full.
+     */
+    public AsyncEventBus(int capacity, BackPressure backPressure) {
+        this(capacity, backPressure, 1, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a new `AsyncEventBus` and starts its dispatcher threads.
+     *
+     * @param capacity     The minimum number of events the queue can hold.
+     * @param backPressure The strategy used when an event is published while the queue is full.
+     * @param dispatchers  The number of dispatcher threads.
+     * @param batchSize    The number of events each dispatcher drains at once.
+     * @throws IllegalArgumentException if the number of dispatchers or the batch size is not positive.
+     */
+    public AsyncEventBus(int capacity, BackPressure backPressure, int dispatchers, int batchSize) {
+        if (dispatchers <= 0 || batchSize <= 0)
+            throw new IllegalArgumentException("Dispatchers and batch size must be positive");
+        this.queue = new EventQueue(capacity);
+        this.backPressure = backPressure;
+        this.batchSize = batchSize;
+        this.dispatchers = new DispatcherThread[dispatchers];
+        this.startNanos = System.nanoTime();
+        for (int i = 0; i < dispatchers; i++) {
+            DispatcherThread thread = new DispatcherThread(this::dispatchLoop, "EventBus-dispatcher-" + i);
+            thread.setDaemon(true);
+            this.dispatchers[i] = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Enqueues an event to be dispatched by a dispatcher thread. If the queue is full the back-pressure strategy
+     * decides whether this waits or drops the event. Events published after this bus was closed are dropped, and an
+     * event enqueued while the bus was being closed is dispatched by the publishing thread itself.
+     * <p>
+     * A listener publishing from a dispatcher thread never waits for the queue, as the queue may only drain through
+     * that thread. If the queue is full and the strategy does not drop events, the event is dispatched right away on
+     * the dispatcher thread instead, ahead of the events still queued.
+     *
+     * @param event The event to be published.
+     * @param <T>   The type of the event.
+     */
+    @Override
+    public <T extends Event> void publish(T event) {
+        if (running && enqueue(event)) {
+            // the dispatchers may have exited before the event was enqueued
+            if (!running)
+                dispatchRemaining();
+            return;
+        }
+        dropped.increment();
+        EventPool<?> pool = event.pool;
+        if (pool != null)
+            pool.recycle(event);
+    }
+
+    /**
+     * Enqueues an event, applying the back-pressure strategy while the queue is full.
+     *
+     * @return `true` if the event was enqueued, or `false` if it was dropped.
+     */
+    private boolean enqueue(Event event) {
+        if (queue.offer(event)) {
+            published.increment();
+            return true;
+        }
+        if (backPressure != BackPressure.DROP && Thread.currentThread() instanceof DispatcherThread) {
+            dispatchQueued(event);
+            dispatched.increment();
+            return true;
+        }
+        long park = 1;
+        while (backPressure != BackPressure.DROP && running) {
+            if (backPressure == BackPressure.SPIN) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(park);
+                park = Math.min(park << 1, MAX_PARK_NANOS);
+            }
+            if (queue.offer(event)) {
+                published.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drains and dispatches batches of events until this bus is closed and its queue is empty.
+     */
+    private void dispatchLoop() {
+        Event[] batch = new Event[batchSize];
+        long park = 1;
+        while (running || !queue.isEmpty()) {
+            int count = queue.drain(batch);
+            if (count == 0) {
+                LockSupport.parkNanos(park);
+                park = Math.min(park << 1, MAX_PARK_NANOS);
+                continue;
+            }
+            park = 1;
+            for (int i = 0; i < count; i++) {
+                dispatchQueued(batch[i]);
+                batch[i] = null;
+            }
+            dispatched.add(count);
+            batches.increment();
+        }
+    }
+
+    /**
+     * Dispatches every event left in the queue on the calling thread, used once the dispatchers have stopped.
+     */
+    private void dispatchRemaining() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            dispatchQueued(event);
+            dispatched.increment();
+        }
+    }
+
+    /**
+     * Dispatches a dequeued event, passing any exception thrown by a listener to the uncaught exception handler of the
+     * calling thread so the remaining events are still dispatched.
+     */
+    private void dispatchQueued(Event event) {
+        try {
+            super.publish(event);
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * Stops accepting events, waits for every queued event to be dispatched and stops the dispatcher threads.
+     *
+     * @throws InterruptedException if interrupted while waiting for the dispatchers.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread dispatcher : dispatchers)
+            dispatcher.join();
+        dispatchRemaining();
+    }
+
+    /**
+     * @return The number of events accepted into the queue.
+     */
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * @return The number of events dispatched to their listeners.
+     */
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    /**
+     * @return The number of events dropped because the queue was full or this bus was closed.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return The mean number of events dispatched per drained batch.
+     */
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) dispatched.sum() / count;
+    }
+
+    /**
+     * @return The mean number of events dispatched per second since this bus was started.
+     */
+    public double getThroughput() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : dispatched.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * @return The approximate number of events waiting to be dispatched.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return The strategy used when an event is published while the queue is full.
+     */
+    public BackPressure getBackPressure() {
+        return backPressure;
+    }
+
+    /**
+     * A thread dispatching the events of an `AsyncEventBus`, told apart from other threads so it never blocks on a
+     * full queue of any bus, and dispatchers publishing to the buses of one another cannot wait on each other.
+     */
+    private static final class DispatcherThread extends Thread {
+
+        private DispatcherThread(Runnable task, String name) {
+            super(task, name);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package event;
+
+/**
+ * The strategies an {@link AsyncEventBus} can use when an event is published while its queue is full.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public enum BackPressure {
+
+    /**
+     * The publishing thread parks until the dispatchers have made room for the event.
+     */
+    BLOCK,
+
+    /**
+     * The event is dropped and counted, so the publishing thread never waits.
+     */
+    DROP,
+
+    /**
+     * The publishing thread busy-spins until the dispatchers have made room for the event, which reacts fastest but
+     * keeps a core busy while waiting.
+     */
+    SPIN
+}
@@ -0,0 +1,20 @@
+package event;
+
+/**
+ * An interface for objects that receive every coalesced event of a type at once, when an {@link EventBus} is flushed.
+ *
+ * @param <E> The type of events that the listener can handle.
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface BatchListener<E extends Event> {
+
+    /**
+     * Called when coalesced events are flushed, before they are dispatched to their individual listeners.
+     *
+     * @param batch The latest event of each key, in the order their keys were first published since the last flush.
+     */
+    void update(E[] batch);
+}
@@ -0,0 +1,129 @@
+package event;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Holds the latest published event of each coalescing key of a single event class until it is flushed.
+ * <p>
+ * Keys are mapped to the position of their event through an open-addressing table, so replacing an event neither
+ * allocates nor changes the position of its key.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+final class Coalescer {
+
+    // An empty array of batch listeners, used when the event class has none
+    private static final BatchListener[] NO_LISTENERS = new BatchListener[0];
+
+    // The class of the coalesced events
+    private final Class<?> type;
+
+    // The keys of each slot of the table
+    private long[] keys;
+
+    // The position of the event of each slot plus one, or 0 if the slot is empty
+    private int[] slots;
+
+    // The pending events, in the order their keys were first published
+    private Event[] pending;
+
+    // The number of pending events
+    private int size;
+
+    // The listeners receiving every flushed batch, replaced rather than modified
+    volatile BatchListener[] listeners = NO_LISTENERS;
+
+    /**
+     * Constructs a new `Coalescer` for the given event class.
+     *
+     * @param type The class of the coalesced events.
+     */
+    Coalescer(Class<?> type) {
+        this.type = type;
+        this.keys = new long[Long.SIZE];
+        this.slots = new int[Long.SIZE];
+        this.pending = new Event[Long.SIZE >> 1];
+    }
+
+    /**
+     * Records an event as the latest of its key.
+     *
+     * @param event The event to record.
+     * @return The event it replaced, or `null` if its key had no pending event.
+     */
+    synchronized Event offer(Event event) {
+        long key = ((Coalescing) event).coalescingKey();
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int position = slots[slot] - 1;
+                Event replaced = pending[position];
+                pending[position] = event;
+                return replaced;
+            }
+        }
+        if (size == pending.length) {
+            grow();
+            return offer(event);
+        }
+        keys[slot] = key;
+        slots[slot] = size + 1;
+        pending[size++] = event;
+        return null;
+    }
+
+    /**
+     * Removes every pending event.
+     *
+     * @return The pending events, in an array of the coalesced event class, or `null` if there were none.
+     */
+    synchronized Event[] drain() {
+        if (size == 0)
+            return null;
+        Event[] batch = (Event[]) Array.newInstance(type, size);
+        System.arraycopy(pending, 0, batch, 0, size);
+        Arrays.fill(pending, 0, size, null);
+        Arrays.fill(slots, 0);
+        size = 0;
+        return batch;
+    }
+
+    /**
+     * @return The number of pending events.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the number of pending events the table can hold, keeping it at most half full.
+     */
+    private void grow() {
+        pending = Arrays.copyOf(pending, pending.length << 1);
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length << 1];
+        slots = new int[oldSlots.length << 1];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] == 0)
+                continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            slots[slot] = oldSlots[i];
+        }
+    }
+
+    /**
+     * @return The spread hash of a key.
+     */
+    private static int hash(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
@@ -0,0 +1,21 @@
+package event;
+
+/**
+ * An event whose instances can replace one another before being dispatched. When the type of the event is coalesced
+ * through {@link EventBus#coalesce(Class)}, publishing it only records it as the latest event of its key, and only the
+ * latest event of each key is dispatched when {@link EventBus#flush()} is called.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public interface Coalescing {
+
+    /**
+     * Retrieves the key of the subject of this event, such as the index of the entity whose position changed.
+     * Events of the same class and key replace one another until they are flushed.
+     *
+     * @return The coalescing key of this event.
+     */
+    long coalescingKey();
+}
@@ -13,6 +13,9 @@ public class Event {
     // Flag to indicate whether the event is closed
     protected boolean closed;
 
+    // The pool this event is returned to once it has been published, or null if it is not pooled
+    EventPool<?> pool;
+
     /**
      * Closes the event, indicating that further processing should be stopped.
      */
@@ -1,12 +1,34 @@
 package event;
 
-import java.util.HashMap;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * EventBus facilitates the communication between different components in a decoupled manner.
  * It allows objects to subscribe to and publish events of specific types.
+ * <p>
+ * The subscribers of each event type are kept in an array sorted by priority, which is replaced rather than modified
+ * when a listener subscribes or unsubscribes. Publishing therefore never locks or allocates, and any number of threads
+ * can publish at the same time.
+ * <p>
+ * An event is delivered to the listeners of its own class as well as those of its superclasses and interfaces. The
+ * listeners of every type an event class can be assigned to are flattened into one array, which is cached per event
+ * class and rebuilt the first time the class is published after a subscription changed.
+ * <p>
+ * Besides listener objects, the methods of any object annotated with {@link Subscribe} can be subscribed at once
+ * through {@link #register(Object)}.
+ * <p>
+ * Event classes implementing {@link Coalescing} can be coalesced, so bursts of events about the same subject are
+ * reduced to the latest one of each subject and dispatched together by {@link #flush()}.
  *
  * @author Albert Beaupre
  * @version 1.0
@@ -14,50 +36,494 @@ import java.util.PriorityQueue;
  */
 public class EventBus {
 
-    // A mapping of event types to their corresponding subscribers
-    private final Map<Class<?>, PriorityQueue<EventListener>> subscribers;
+    // An empty array of listeners, used when an event type has no subscribers
+    private static final EventListener[] NO_LISTENERS = new EventListener[0];
+
+    // A mapping of event types to their corresponding subscribers, sorted by descending priority
+    private final Map<Class<?>, EventListener[]> subscribers;
+
+    // The types each event class can be assigned to, shared by every bus as they hold nothing specific to one
+    private static final ClassValue<Class<?>[]> SUPERTYPES = new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            return supertypes(type);
+        }
+    };
+
+    // The flattened listeners of each published event class, rebuilt once outdated
+    private final Map<Class<?>, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    // The pools events are leased from, mapped by event type
+    private final Map<Class<?>, EventPool<?>> pools = new ConcurrentHashMap<>();
+
+    // The pending events of each coalesced event class
+    private final Map<Class<?>, Coalescer> coalescers = new ConcurrentHashMap<>();
+
+    // The listeners bound to the handler methods of each registered object
+    private final Map<Object, List<SubscriberMethods.Binding>> registered = new IdentityHashMap<>();
+
+    // The priorities of bound handler methods, which their generated listeners cannot report themselves
+    private final Map<EventListener<?>, Integer> priorities = new ConcurrentHashMap<>();
+
+    // The metrics being recorded, or null if metrics are disabled
+    private volatile EventMetrics metrics;
+
+    // Increased on every subscription change, outdating every cached resolution
+    private volatile int version;
 
     /**
      * Creates a new EventBus with an empty subscriber mapping.
      */
     public EventBus() {
-        this.subscribers = new HashMap<>();
+        this.subscribers = new ConcurrentHashMap<>();
     }
 
     /**
-     * Subscribes a listener to receive events of a specific type.
+     * Subscribes a listener to receive events of a specific type. Listeners with a higher priority are notified
+     * first, and listeners with the same priority are notified in the order they subscribed.
      *
      * @param eventType The class representing the type of events to subscribe to.
      * @param listener  The listener that will be notified when events of the specified type occur.
      * @param <T>       The type of events to subscribe to.
      */
     public synchronized <T extends Event> void subscribe(Class<T> eventType, EventListener<T> listener) {
-        // If the event type has no subscribers yet, create a new priority queue for them
-        subscribers
-                .computeIfAbsent(eventType, k -> new PriorityQueue<>())
-                .add(listener);
+        add(eventType, listener);
+    }
+
+    /**
+     * Subscribes a listener to receive every event that can be assigned to a type, which may be an interface that
+     * events implement.
+     *
+     * @param type     The class or interface representing the types of events to subscribe to.
+     * @param listener The listener that will be notified when events of the specified type occur.
+     */
+    public synchronized void subscribeAll(Class<?> type, EventListener<Event> listener) {
+        add(type, listener);
+    }
+
+    /**
+     * Subscribes every method of an object annotated with {@link Subscribe}, including those declared by its
+     * superclasses. Each method is bound to a generated listener that calls it directly rather than through
+     * reflection, and which the bus notifies like any other listener.
+     * <p>
+     * The methods are accessed through a private lookup of their declaring class, so the package of the object must
+     * be open to this module, as every package on the class path is. Otherwise use
+     * {@link #register(Object, MethodHandles.Lookup)} with a lookup created by the object's own module.
+     *
+     * @param subscriber The object declaring the handler methods.
+     * @throws IllegalArgumentException if a handler method does not take exactly one event parameter, or cannot be
+     *                                  accessed.
+     */
+    public void register(Object subscriber) {
+        register(subscriber, type -> {
+            try {
+                return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Package of " + type.getName() + " is not open to " + getClass().getModule(), e);
+            }
+        });
+    }
+
+    /**
+     * Subscribes every method of an object annotated with {@link Subscribe}, accessing them through the given lookup,
+     * usually `MethodHandles.lookup()` called within the class of the object.
+     *
+     * @param subscriber The object declaring the handler methods.
+     * @param lookup     The lookup used to access the handler methods.
+     * @throws IllegalArgumentException if a handler method does not take exactly one event parameter, or cannot be
+     *                                  accessed.
+     */
+    public void register(Object subscriber, MethodHandles.Lookup lookup) {
+        register(subscriber, type -> lookup);
+    }
+
+    /**
+     * Binds the handler methods of an object and subscribes them as one change.
+     */
+    private void register(Object subscriber, Function<Class<?>, MethodHandles.Lookup> lookups) {
+        List<SubscriberMethods.Binding> bindings = SubscriberMethods.bind(subscriber, lookups);
+        synchronized (this) {
+            if (registered.putIfAbsent(subscriber, bindings) != null)
+                throw new IllegalArgumentException("Subscriber is already registered");
+            for (SubscriberMethods.Binding binding : bindings) {
+                if (binding.priority() != 0)
+                    priorities.put(binding.listener(), binding.priority());
+                add(binding.eventType(), binding.listener());
+            }
+        }
+    }
+
+    /**
+     * Unsubscribes every handler method of an object registered through {@link #register(Object)}.
+     *
+     * @param subscriber The registered object.
+     * @return `true` if the object was registered, otherwise `false`.
+     */
+    public synchronized boolean unregister(Object subscriber) {
+        List<SubscriberMethods.Binding> bindings = registered.remove(subscriber);
+        if (bindings == null)
+            return false;
+        for (SubscriberMethods.Binding binding : bindings) {
+            unsubscribe(binding.eventType(), binding.listener());
+            priorities.remove(binding.listener());
+        }
+        return true;
+    }
+
+    /**
+     * Adds a listener to the subscribers of a type, keeping them sorted by priority.
+     */
+    private void add(Class<?> eventType, EventListener<?> listener) {
+        EventListener[] current = subscribers.getOrDefault(eventType, NO_LISTENERS);
+        EventListener[] updated = new EventListener[current.length + 1];
+
+        // Find the position after every listener of the same or higher priority
+        int position = current.length;
+        int priority = priorityOf(listener);
+        for (int i = 0; i < current.length; i++) {
+            if (priorityOf(current[i]) < priority) {
+                position = i;
+                break;
+            }
+        }
+        System.arraycopy(current, 0, updated, 0, position);
+        updated[position] = listener;
+        System.arraycopy(current, position, updated, position + 1, current.length - position);
+        subscribers.put(eventType, updated);
+        version++;
+    }
+
+    /**
+     * Unsubscribes a listener from events of a specific type.
+     *
+     * @param eventType The class representing the type of events the listener subscribed to.
+     * @param listener  The listener to unsubscribe.
+     * @return `true` if the listener was subscribed, otherwise `false`.
+     */
+    public synchronized boolean unsubscribe(Class<?> eventType, EventListener<?> listener) {
+        EventListener[] current = subscribers.get(eventType);
+        if (current == null)
+            return false;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != listener)
+                continue;
+            if (current.length == 1) {
+                subscribers.remove(eventType);
+            } else {
+                EventListener[] updated = new EventListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscribers.put(eventType, updated);
+            }
+            version++;
+            return true;
+        }
+        return false;
     }
 
     /**
      * Publishes an event to all subscribers interested in that event type.
      * If an event is marked as closed, it will not be processed further.
+     * <p>
+     * Events of a coalesced class are not dispatched yet; they replace the pending event of the same key until
+     * {@link #flush()} is called.
      *
      * @param event The event to be published.
      * @param <T>   The type of the event.
      */
-    public synchronized <T extends Event> void publish(T event) {
-        // Retrieve the subscribers for the given event type
-        PriorityQueue<EventListener> listeners = subscribers.get(event.getClass());
+    public <T extends Event> void publish(T event) {
+        EventMetrics metrics = this.metrics;
+        if (metrics != null)
+            metrics.published(event.getClass());
+        if (!coalescers.isEmpty()) {
+            Coalescer coalescer = coalescers.get(event.getClass());
+            if (coalescer != null) {
+                Event replaced = coalescer.offer(event);
+                if (replaced != null && replaced != event && replaced.pool != null)
+                    replaced.pool.recycle(replaced);
+                return;
+            }
+        }
+        dispatch(event);
+    }
 
-        if (listeners != null) {
-            // Iterate over subscribers and notify them about the event
+    /**
+     * Dispatches an event to its subscribers right away, returning it to its pool afterwards if it is pooled.
+     *
+     * @param event The event to be dispatched.
+     */
+    @SuppressWarnings("unchecked")
+    protected void dispatch(Event event) {
+        // Retrieve the subscribers for the given event type and every type it can be assigned to
+        EventListener[] listeners = resolve(event.getClass());
+
+        // Notify the subscribers in order of priority, timing them if metrics are enabled
+        EventMetrics metrics = this.metrics;
+        try {
             for (EventListener listener : listeners) {
                 // If the event is closed, stop further processing
                 if (event.closed)
                     return;
+                if (metrics == null) {
+                    listener.update(event);
+                    continue;
+                }
+                long start = System.nanoTime();
                 listener.update(event);
+                metrics.record(listener, event, System.nanoTime() - start);
+            }
+        } finally {
+            // Return pooled events once every listener is done with them
+            EventPool<?> pool = event.pool;
+            if (pool != null)
+                pool.recycle(event);
+        }
+    }
+
+    /**
+     * Coalesces the events of a class, so that publishing one only replaces the pending event of the same
+     * {@link Coalescing#coalescingKey() key}, and only the latest event of each key is dispatched by {@link #flush()}.
+     * Only events of exactly this class are coalesced, not events of its subclasses.
+     *
+     * @param eventType The class of the events to coalesce.
+     * @param <T>       The type of the events.
+     */
+    public <T extends Event & Coalescing> void coalesce(Class<T> eventType) {
+        coalescers.computeIfAbsent(eventType, Coalescer::new);
+    }
+
+    /**
+     * Subscribes a listener to receive every flushed batch of a coalesced event class, coalescing the class if it is
+     * not coalesced yet. Batch listeners are notified before the events are dispatched one by one.
+     *
+     * @param eventType The class of the coalesced events.
+     * @param listener  The listener that will be notified of each flushed batch.
+     * @param <T>       The type of the events.
+     */
+    public synchronized <T extends Event & Coalescing> void subscribeBatch(Class<T> eventType, BatchListener<T> listener) {
+        Coalescer coalescer = coalescers.computeIfAbsent(eventType, Coalescer::new);
+        BatchListener[] current = coalescer.listeners;
+        BatchListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        coalescer.listeners = updated;
+    }
+
+    /**
+     * Unsubscribes a listener from the flushed batches of a coalesced event class.
+     *
+     * @param eventType The class of the coalesced events.
+     * @param listener  The listener to unsubscribe.
+     * @return `true` if the listener was subscribed, otherwise `false`.
+     */
+    public synchronized boolean unsubscribeBatch(Class<?> eventType, BatchListener<?> listener) {
+        Coalescer coalescer = coalescers.get(eventType);
+        if (coalescer == null)
+            return false;
+        BatchListener[] current = coalescer.listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != listener)
+                continue;
+            BatchListener[] updated = new BatchListener[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, i);
+            System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+            coalescer.listeners = updated;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Dispatches the latest pending event of each key of every coalesced event class, first as a whole batch to the
+     * batch listeners of its class and then one by one to its subscribers. This is usually called once per tick.
+     *
+     * @return The number of events dispatched.
+     */
+    @SuppressWarnings("unchecked")
+    public int flush() {
+        int flushed = 0;
+        for (Coalescer coalescer : coalescers.values()) {
+            Event[] batch = coalescer.drain();
+            if (batch == null)
+                continue;
+            for (BatchListener listener : coalescer.listeners)
+                listener.update(batch);
+            for (Event event : batch)
+                dispatch(event);
+            flushed += batch.length;
+        }
+        return flushed;
+    }
+
+    /**
+     * @return The number of coalesced events waiting for {@link #flush()}.
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (Coalescer coalescer : coalescers.values())
+            pending += coalescer.size();
+        return pending;
+    }
+
+    /**
+     * Starts recording publish counts and listener latencies, discarding any previously recorded metrics.
+     *
+     * @return The metrics being recorded.
+     */
+    public EventMetrics enableMetrics() {
+        return enableMetrics(0, TimeUnit.NANOSECONDS, report -> {
+        });
+    }
+
+    /**
+     * Starts recording publish counts and listener latencies, reporting every listener that takes longer than a time
+     * budget to handle an event. Any previously recorded metrics are discarded.
+     *
+     * @param budget The time a listener may take to handle an event, or 0 to report no listeners.
+     * @param unit   The unit of the budget.
+     * @param output The output of slow listener reports, such as `System.err::println`. It is called on the
+     *               dispatching thread, so it should return quickly.
+     * @return The metrics being recorded.
+     */
+    public EventMetrics enableMetrics(long budget, TimeUnit unit, Consumer<String> output) {
+        EventMetrics metrics = new EventMetrics(unit.toNanos(budget), output);
+        this.metrics = metrics;
+        return metrics;
+    }
+
+    /**
+     * Stops recording metrics.
+     */
+    public void disableMetrics() {
+        this.metrics = null;
+    }
+
+    /**
+     * @return The metrics being recorded, or `null` if metrics are disabled.
+     */
+    public EventMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Registers the pool events of a specific type are leased from through {@link #lease(Class)}.
+     *
+     * @param eventType The class of the pooled events.
+     * @param pool      The pool of the events.
+     * @param <T>       The type of the pooled events.
+     */
+    public <T extends Event> void registerPool(Class<T> eventType, EventPool<T> pool) {
+        pools.put(eventType, pool);
+    }
+
+    /**
+     * Leases an event of a specific type from its registered pool. The event is returned to the pool automatically
+     * once it has been published.
+     *
+     * @param eventType The class of the event.
+     * @param <T>       The type of the event.
+     * @return An event ready to be published.
+     * @throws IllegalStateException if no pool is registered for the event type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Event> T lease(Class<T> eventType) {
+        EventPool<T> pool = (EventPool<T>) pools.get(eventType);
+        if (pool == null)
+            throw new IllegalStateException("No pool registered for " + eventType.getName());
+        return pool.obtain();
+    }
+
+    /**
+     * Retrieves the listeners of an event class and every type it can be assigned to, rebuilding them if a
+     * subscription changed since they were last resolved.
+     *
+     * @param eventType The class of the published event.
+     * @return The listeners, sorted by priority.
+     */
+    protected EventListener[] resolve(Class<?> eventType) {
+        int version = this.version;
+        Resolution resolution = resolutions.get(eventType);
+        if (resolution != null && resolution.version == version)
+            return resolution.listeners;
+
+        EventListener[] listeners = flatten(eventType);
+        resolutions.put(eventType, new Resolution(version, listeners));
+        return listeners;
+    }
+
+    /**
+     * Collects the listeners of an event class, its superclasses and its interfaces into a single array. Listeners
+     * with a higher priority come first; listeners with the same priority keep the order of their types, from the
+     * event class towards its supertypes, and then the order they subscribed in.
+     */
+    private EventListener[] flatten(Class<?> eventType) {
+        ArrayList<EventListener> listeners = new ArrayList<>();
+        for (Class<?> type : SUPERTYPES.get(eventType)) {
+            EventListener[] subscribed = subscribers.get(type);
+            if (subscribed != null) {
+                for (EventListener listener : subscribed) {
+                    if (!listeners.contains(listener))
+                        listeners.add(listener);
+                }
             }
         }
+        EventListener[] sorted = listeners.toArray(NO_LISTENERS);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(priorityOf(b), priorityOf(a)));
+        return sorted;
     }
 
-}
\ No newline at end of file
+    /**
+     * Collects an event class, its superclasses and its interfaces, from the event class towards its supertypes.
+     */
+    private static Class<?>[] supertypes(Class<?> eventType) {
+        LinkedHashSet<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> type = eventType; type != null; type = type.getSuperclass())
+            types.add(type);
+        ArrayList<Class<?>> pending = new ArrayList<>(types);
+        for (int i = 0; i < pending.size(); i++) {
+            for (Class<?> implemented : pending.get(i).getInterfaces()) {
+                if (types.add(implemented))
+                    pending.add(implemented);
+            }
+        }
+        return types.toArray(new Class<?>[0]);
+    }
+
+    /**
+     * Retrieves the priority a subscribed listener is ordered by. For the listener of a {@link Subscribe} method this
+     * is the priority of the annotation, which the listener itself does not report through
+     * {@link EventListener#priority()}.
+     *
+     * @param listener The listener.
+     * @return The priority of the listener.
+     */
+    public int getPriority(EventListener<?> listener) {
+        return priorityOf(listener);
+    }
+
+    /**
+     * Retrieves the priority of a listener, which for the listener of a {@link Subscribe} method is the priority of
+     * the annotation.
+     */
+    private int priorityOf(EventListener<?> listener) {
+        Integer priority = priorities.isEmpty() ? null : priorities.get(listener);
+        return priority != null ? priority : listener.priority();
+    }
+
+    /**
+     * Retrieves the listeners subscribed to a specific event type, in the order they are notified. The listeners
+     * bound to {@link Subscribe} methods report the default priority, so use {@link #getPriority(EventListener)} to
+     * find the priority each listener is ordered by.
+     *
+     * @param eventType The class representing the type of events.
+     * @return A copy of the subscribed listeners.
+     */
+    public EventListener[] getSubscribers(Class<?> eventType) {
+        return subscribers.getOrDefault(eventType, NO_LISTENERS).clone();
+    }
+
+    /**
+     * The flattened listeners of an event class, along with the subscription version they were resolved at.
+     */
+    private record Resolution(int version, EventListener[] listeners) {
+    }
+}
@@ -0,0 +1,152 @@
+package event;
+
+import pool.Pool;
+import pool.PoolFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * An `EventPool` recycles the instances of a single event class, so high-frequency events are not allocated on every
+ * publish. Events obtained from the pool are returned to it automatically once an {@link EventBus} has finished
+ * dispatching them, and their {@link Event#closed} flag is reset before they are handed out again.
+ * <p>
+ * Each thread keeps a small cache of recycled events, so obtaining and releasing events on the same thread never
+ * touches the shared {@link Pool}. The shared pool is only locked when a cache runs empty or overflows, such as when
+ * events are published on one thread and dispatched on another.
+ * <p>
+ * Listeners must not keep a reference to a pooled event after returning from {@link EventListener#update(Event)}.
+ *
+ * @param <E> The type of events within the pool.
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class EventPool<E extends Event> {
+
+    /**
+     * The default number of events each thread caches.
+     */
+    public static final int DEFAULT_THREAD_CACHE_SIZE = 32;
+
+    /**
+     * The pool shared by every thread, locked on itself.
+     */
+    private final Pool<E> shared;
+
+    /**
+     * The events cached by each thread.
+     */
+    private final ThreadLocal<Cache> caches;
+
+    /**
+     * Constructs a new `EventPool` creating events with the given constructor.
+     *
+     * @param constructor    Creates a new event.
+     * @param allocationSize The number of events created whenever the shared pool runs empty.
+     */
+    public EventPool(Supplier<E> constructor, int allocationSize) {
+        this(new PoolFactory<>() {
+            @Override
+            public E create() {
+                return constructor.get();
+            }
+
+            @Override
+            public void init(E object) {
+            }
+
+            @Override
+            public void destroy(E object) {
+            }
+        }, allocationSize, DEFAULT_THREAD_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a new `EventPool` managing events with the given factory. The factory is used to reset the fields of
+     * an event when it is released, while the closed flag is always reset by this pool.
+     *
+     * @param factory        The factory creating, initializing and resetting events.
+     * @param allocationSize The number of events created whenever the shared pool runs empty.
+     * @param cacheSize      The number of events each thread caches.
+     */
+    public EventPool(PoolFactory<E> factory, int allocationSize, int cacheSize) {
+        this.shared = new Pool<>(factory, allocationSize);
+        this.caches = ThreadLocal.withInitial(() -> new Cache(Math.max(1, cacheSize), factory));
+    }
+
+    /**
+     * Obtains an event from the pool. The event is returned to the pool once it has been published, or by calling
+     * {@link #release(Event)} if it is never published.
+     *
+     * @return An event ready to be published.
+     */
+    public E obtain() {
+        Cache cache = caches.get();
+        E event = cache.size > 0 ? cache.pop() : null;
+        if (event == null) {
+            synchronized (shared) {
+                event = shared.obtain();
+            }
+        }
+        event.closed = false;
+        event.pool = this;
+        return event;
+    }
+
+    /**
+     * Returns an event to the pool.
+     *
+     * @param event The event to return.
+     * @throws IllegalArgumentException if the event was not obtained from this pool, or was already returned to it.
+     */
+    public void release(E event) {
+        if (event.pool != this)
+            throw new IllegalArgumentException("Event was not obtained from this pool or was already released");
+        event.pool = null;
+        Cache cache = caches.get();
+        if (cache.size < cache.events.length) {
+            cache.push(event);
+            return;
+        }
+        synchronized (shared) {
+            shared.release(event);
+        }
+    }
+
+    /**
+     * Returns an event that was obtained from this pool.
+     *
+     * @param event The event to return.
+     */
+    @SuppressWarnings("unchecked")
+    void recycle(Event event) {
+        release((E) event);
+    }
+
+    /**
+     * The events cached by a single thread.
+     */
+    private final class Cache {
+        private final Event[] events;
+        private final PoolFactory<E> factory;
+        private int size;
+
+        private Cache(int capacity, PoolFactory<E> factory) {
+            this.events = new Event[capacity];
+            this.factory = factory;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E pop() {
+            E event = (E) events[--size];
+            events[size] = null;
+            factory.init(event);
+            return event;
+        }
+
+        private void push(E event) {
+            factory.destroy(event);
+            events[size++] = event;
+        }
+    }
+}
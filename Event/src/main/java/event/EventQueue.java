@@ -0,0 +1,152 @@
+package event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue of events that any number of threads can offer to and poll from at the same time. Each
+ * slot of the ring carries a sequence number telling producers and consumers whose turn it is, so a thread only
+ * contends on the compare-and-set of the position it claims and never blocks another thread.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class EventQueue {
+
+    /**
+     * The events of each slot.
+     */
+    private final AtomicReferenceArray<Event> events;
+
+    /**
+     * The sequence number of each slot.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The mask turning a position into a slot.
+     */
+    private final int mask;
+
+    /**
+     * The position of the next event to offer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The position of the next event to poll.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Constructs a new `EventQueue` holding at least the given number of events. The capacity is rounded up to a power
+     * of two.
+     *
+     * @param capacity The minimum number of events the queue can hold.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public EventQueue(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.events = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * Offers an event to the end of the queue.
+     *
+     * @param event The event to offer.
+     * @return `true` if the event was added, or `false` if the queue is full.
+     */
+    public boolean offer(Event event) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events.lazySet(slot, event);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Polls the event at the front of the queue.
+     *
+     * @return The polled event, or `null` if the queue is empty.
+     */
+    public Event poll() {
+        long position = head.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Event event = events.get(slot);
+                    events.lazySet(slot, null);
+                    sequences.set(slot, position + mask + 1);
+                    return event;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Polls up to the length of the given array of events, in the order they were offered.
+     *
+     * @param batch The array to fill with polled events.
+     * @return The number of events polled.
+     */
+    public int drain(Event[] batch) {
+        int count = 0;
+        while (count < batch.length) {
+            Event event = poll();
+            if (event == null)
+                break;
+            batch[count++] = event;
+        }
+        return count;
+    }
+
+    /**
+     * @return The approximate number of events within the queue.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head.get(), capacity()));
+    }
+
+    /**
+     * @return `true` if the queue appears to hold no events, otherwise `false`.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    /**
+     * @return The number of events the queue can hold.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,19 @@
+package event;
+
+/**
+ * An event that belongs to a partition, such as the entity or region it is about. A {@link ShardedEventBus} dispatches
+ * every event of the same partition key on the same shard, so they are handled in the order they were published.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public interface Partitioned {
+
+    /**
+     * Retrieves the key of the partition this event belongs to.
+     *
+     * @return The partition key of this event.
+     */
+    long partitionKey();
+}
@@ -0,0 +1,131 @@
+package event;
+
+/**
+ * An {@link EventBus} that spreads dispatching over several shards, each with its own queue and dispatcher thread.
+ * Subscriptions, pools and coalescing are shared by every shard; only dispatching is split. Coalesced events are held
+ * by this bus until {@link #flush()}, which routes each flushed event to its shard like any other event.
+ * <p>
+ * {@link Partitioned} events are routed by their partition key, and any other event by the thread publishing it. Every
+ * event of the same key is therefore dispatched by the same thread in the order it was published, while events of
+ * different keys are dispatched in parallel, so listeners must be thread safe but never see the events of a single
+ * entity or region out of order.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+public class ShardedEventBus extends EventBus implements AutoCloseable {
+
+    /**
+     * The shards dispatching events, each with a single dispatcher thread.
+     */
+    private final Shard[] shards;
+
+    /**
+     * Constructs a new `ShardedEventBus` and starts the dispatcher thread of each shard.
+     *
+     * @param shards       The number of shards.
+     * @param capacity     The minimum number of events the queue of each shard can hold.
+     * @param backPressure The strategy used when an event is published while the queue of its shard is full.
+     * @throws IllegalArgumentException if the number of shards is not positive.
+     */
+    public ShardedEventBus(int shards, int capacity, BackPressure backPressure) {
+        if (shards <= 0)
+            throw new IllegalArgumentException("Shards must be positive");
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++)
+            this.shards[i] = new Shard(capacity, backPressure);
+    }
+
+    /**
+     * Enqueues an event on the shard of its partition key, or on the shard of the calling thread if it is not
+     * {@link Partitioned}. This is reached both by publishing an event that is not coalesced and by flushing the
+     * coalesced events, so neither is dispatched on the calling thread.
+     *
+     * @param event The event to be dispatched.
+     */
+    @Override
+    protected void dispatch(Event event) {
+        long key = event instanceof Partitioned partitioned ? partitioned.partitionKey() : Thread.currentThread().getId();
+        shards[shardOf(key)].publish(event);
+    }
+
+    /**
+     * Finds the shard dispatching the events of a partition key.
+     *
+     * @param key The partition key.
+     * @return The index of the shard.
+     */
+    public int shardOf(long key) {
+        long hash = (key * 0x9E3779B97F4A7C15L) >>> 32;
+        return (int) ((hash * shards.length) >>> 32);
+    }
+
+    /**
+     * Stops accepting events, waits for every queued event to be dispatched and stops the dispatcher threads.
+     *
+     * @throws InterruptedException if interrupted while waiting for the dispatchers.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (Shard shard : shards)
+            shard.close();
+    }
+
+    /**
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param shard The index of the shard.
+     * @return The approximate number of events waiting to be dispatched by the shard.
+     */
+    public int getQueueSize(int shard) {
+        return shards[shard].getQueueSize();
+    }
+
+    /**
+     * @return The number of events dispatched to their listeners by every shard.
+     */
+    public long getDispatched() {
+        long dispatched = 0;
+        for (Shard shard : shards)
+            dispatched += shard.getDispatched();
+        return dispatched;
+    }
+
+    /**
+     * @return The number of events dropped by every shard because its queue was full or this bus was closed.
+     */
+    public long getDropped() {
+        long dropped = 0;
+        for (Shard shard : shards)
+            dropped += shard.getDropped();
+        return dropped;
+    }
+
+    /**
+     * Dispatches an event dequeued by a shard to the shared subscribers.
+     */
+    private void deliver(Event event) {
+        super.dispatch(event);
+    }
+
+    /**
+     * A queue and dispatcher thread handing its events back to the shared subscribers of this bus.
+     */
+    private final class Shard extends AsyncEventBus {
+
+        private Shard(int capacity, BackPressure backPressure) {
+            super(capacity, backPressure);
+        }
+
+        @Override
+        protected void dispatch(Event event) {
+            deliver(event);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package event;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method as a handler of events, subscribed when its owner is passed to {@link EventBus#register(Object)}.
+ * The method must take exactly one parameter, which is either an {@link Event} class or an interface implemented by
+ * events, and it is notified of every published event that can be assigned to that parameter.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+
+    /**
+     * The priority of the handler. Handlers with a higher priority are notified first.
+     *
+     * @return The priority of the handler.
+     */
+    int priority() default 0;
+}
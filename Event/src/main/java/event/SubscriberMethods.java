@@ -0,0 +1,123 @@
+package event;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Binds the {@link Subscribe} methods of an object to {@link EventListener} instances.
+ * <p>
+ * Each method is bound through {@link LambdaMetafactory}, which spins a dedicated listener class whose `update`
+ * calls the method directly, in the same way the compiler binds a method reference. No reflection or boxing takes
+ * place when an event is dispatched, and the handler can be inlined into its listener. The bus still calls `update`
+ * through the {@link EventListener} interface, so that call is no cheaper than for a listener written by hand.
+ * Handlers taking an interface, which an event cannot be converted to by the generated class, and handlers whose
+ * lookup lacks the access needed to spin a class are invoked through a bound {@link MethodHandle} instead.
+ * <p>
+ * A generated listener cannot report the priority of its method, so its {@link EventListener#priority()} is always
+ * the default; the bus keeps the priority beside it instead.
+ *
+ * @author Albert Beaupre
+ * @version 1.0
+ * @since 1.0
+ */
+final class SubscriberMethods {
+
+    // The type of the single abstract method of EventListener, after erasure
+    private static final MethodType UPDATE = MethodType.methodType(void.class, Event.class);
+
+    private SubscriberMethods() {
+    }
+
+    /**
+     * Binds every {@link Subscribe} method of an object, including those declared by its superclasses.
+     *
+     * @param subscriber The object declaring the methods.
+     * @param lookups    Provides the lookup used to access the methods of each declaring class.
+     * @return The bound listeners, along with the types they subscribe to.
+     * @throws IllegalArgumentException if a method does not take exactly one event parameter, or cannot be accessed.
+     */
+    static List<Binding> bind(Object subscriber, Function<Class<?>, MethodHandles.Lookup> lookups) {
+        List<Binding> bindings = new ArrayList<>();
+        Set<String> overridden = new HashSet<>();
+        for (Class<?> type = subscriber.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isBridge() || method.isSynthetic())
+                    continue;
+                String signature = method.getName() + MethodType.methodType(void.class, method.getParameterTypes());
+                if (!Modifier.isPrivate(method.getModifiers()) && !overridden.add(signature))
+                    continue;
+                Subscribe subscribe = method.getAnnotation(Subscribe.class);
+                if (subscribe != null)
+                    bindings.add(bind(subscriber, method, subscribe.priority(), lookups.apply(type)));
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * Binds a single handler method to a listener.
+     */
+    @SuppressWarnings("unchecked")
+    private static Binding bind(Object subscriber, Method method, int priority, MethodHandles.Lookup lookup) {
+        Class<?>[] parameters = method.getParameterTypes();
+        if (parameters.length != 1 || !(Event.class.isAssignableFrom(parameters[0]) || parameters[0].isInterface()))
+            throw new IllegalArgumentException("Subscriber method " + method + " must take a single event parameter");
+        Class<?> eventType = parameters[0];
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+
+        EventListener<Event> listener;
+        try {
+            MethodHandle handle = lookup.unreflect(method);
+            if (lookup.hasFullPrivilegeAccess() && Event.class.isAssignableFrom(eventType)) {
+                MethodType factoryType = isStatic
+                        ? MethodType.methodType(EventListener.class)
+                        : MethodType.methodType(EventListener.class, method.getDeclaringClass());
+                MethodType instantiated = MethodType.methodType(void.class, eventType);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "update", factoryType, UPDATE, handle, instantiated);
+                listener = (EventListener<Event>) (isStatic ? site.getTarget().invoke() : site.getTarget().invoke(subscriber));
+            } else {
+                MethodHandle bound = (isStatic ? handle : handle.bindTo(subscriber)).asType(UPDATE);
+                listener = event -> {
+                    try {
+                        bound.invokeExact(event);
+                    } catch (Throwable t) {
+                        throw SubscriberMethods.<RuntimeException>rethrow(t);
+                    }
+                };
+            }
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Subscriber method " + method + " cannot be bound", e);
+        }
+        return new Binding(eventType, listener, priority);
+    }
+
+    /**
+     * Rethrows a throwable raised by a handler unchanged, including checked exceptions.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T rethrow(Throwable throwable) throws T {
+        throw (T) throwable;
+    }
+
+    /**
+     * A listener bound to a handler method, along with the type of events it subscribes to and its priority. The
+     * priority is kept beside the listener rather than wrapped around it, so the bus calls the bound listener directly
+     * whatever its priority.
+     *
+     * @param eventType The type of events the listener subscribes to.
+     * @param listener  The bound listener.
+     * @param priority  The priority of the handler method.
+     */
+    record Binding(Class<?> eventType, EventListener<Event> listener, int priority) {
+    }
+}
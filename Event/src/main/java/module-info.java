@@ -1,3 +1,4 @@
 module Event {
     exports event;
+    requires transitive IO;
 }
\ No newline at end of file
@@ -1,4 +1,5 @@
 module Math {
     exports math;
+    exports math.geometry;
     requires Benchmarking;
 }
\ No newline at end of file
@@ -325,6 +325,8 @@ public class Text {
      * @return The modified Text object.
      */
     public Text abbreviate(int maxLength) {
+        if (string.length() <= maxLength)
+            return new Text(string);
         return new Text(string.substring(0, maxLength - 3) + "...");
     }
 